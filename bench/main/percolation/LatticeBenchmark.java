@@ -0,0 +1,72 @@
+package main.percolation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+    Cost per opened site of LatticePercolation on every lattice, against SingleUnionPercolation,
+    which has the four tests of the square grid written out.
+
+    Every system has 10^6 sites (1000^2 or 100^3) and opens all of them in random order,
+    so the score is the time per open.
+*/
+
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LatticeBenchmark {
+    private static final int SITES = 1_000_000;
+
+    @Param({ "single-union", "square", "torus", "moore", "triangular", "cubic" })
+    private String lattice;
+
+    private PercolationModel percolation;
+    private int[] order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (lattice) {
+        case "single-union": percolation = new SingleUnionPercolation(1000); break;
+        case "square":       percolation = new LatticePercolation(Lattice.square(1000)); break;
+        case "torus":        percolation = new LatticePercolation(Lattice.torus(1000)); break;
+        case "moore":        percolation = new LatticePercolation(Lattice.moore(1000)); break;
+        case "triangular":   percolation = new LatticePercolation(Lattice.triangular(1000)); break;
+        case "cubic":        percolation = new LatticePercolation(Lattice.cubic(100)); break;
+        default:             throw new IllegalArgumentException(lattice);
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        order = new int[SITES];
+        for (int i = 0; i < SITES; i++) order[i] = i + 1;
+        for (int i = SITES - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int site = order[j];
+            order[j] = order[i];
+            order[i] = site;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(SITES)
+    public int openAll() {
+        percolation.reset();
+        return percolation.openAll(order, 0, SITES, false);
+    }
+}
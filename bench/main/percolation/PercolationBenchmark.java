@@ -0,0 +1,126 @@
+package main.percolation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+    Hot paths of Percolation.
+
+    trial:     new Percolation(n) + open random sites until it percolates
+    trialReset: same on one reused Percolation, as PercolationStats does (no allocation)
+    isFull:    random queries on a grid opened up to the threshold
+    percolates: same grid
+
+    Every benchmark runs on each union-find algorithm (quick-find only with -p unionFind=quick-find,
+    it needs minutes per trial at n = 1000).
+
+    Run with -prof gc (see the "bench" target) to get the allocation rate per trial.
+*/
+
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PercolationBenchmark {
+    @Param({ "100", "1000", "4000" })
+    private int n;
+
+    @Param({ "weighted", "compact", "rem", "rank" })
+    private String unionFind;
+
+    private IntFunction<UnionFind> factory;
+
+    /**
+     * Grid opened until it percolated, used by the query benchmarks
+     */
+    private Percolation percolated;
+    private SplittableRandom random;
+
+    /**
+     * Grid reused by trialReset
+     */
+    private Percolation reused;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        factory = UnionFindAlgorithm.byName(unionFind).factory();
+        random = new SplittableRandom(42);
+        percolated = new Percolation(n, factory);
+        while (!percolated.percolates()) percolated.open(1 + random.nextInt(n * n));
+        reused = new Percolation(n, factory);
+    }
+
+    /**
+     * Random permutation of the sites 1..n^2, reshuffled before every trial
+     */
+    @State(Scope.Thread)
+    public static class Order {
+        private int[] sites;
+        private SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(PercolationBenchmark benchmark) {
+            random = new SplittableRandom(7);
+            sites = new int[benchmark.n * benchmark.n];
+            for (int i = 0; i < sites.length; i++) sites[i] = i + 1;
+        }
+
+        @Setup(Level.Invocation)
+        public void shuffle() {
+            for (int i = sites.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int site = sites[j];
+                sites[j] = sites[i];
+                sites[i] = site;
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int trial(Order order) {
+        Percolation percolation = new Percolation(n, factory);
+        for (int site : order.sites) {
+            percolation.open(site);
+            if (percolation.percolates()) break;
+        }
+        return percolation.numberOfOpenSites();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int trialReset(Order order) {
+        reused.reset();
+        return reused.openAll(order.sites, 0, order.sites.length, true);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean isFull() {
+        return percolated.isFull(1 + random.nextInt(n * n));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean percolates() {
+        return percolated.percolates();
+    }
+}
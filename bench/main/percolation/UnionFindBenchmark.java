@@ -0,0 +1,121 @@
+package main.percolation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+    find/union throughput of every UnionFindAlgorithm on different tree shapes.
+
+    star:     every element linked straight to one root (height 1)
+    binomial: pairs, then pairs of pairs, ... (height log2 size, the worst weighted union allows)
+    random:   size random unions
+
+    find compresses the paths it walks, so findSweep rebuilds the forest before
+    each invocation and then finds every element once.
+
+    quick-find is left out of the default algorithms: a union costs O(size) there,
+    add it with -p algorithm=quick-find on a smaller SIZE.
+*/
+
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UnionFindBenchmark {
+    private static final int SIZE = 1 << 20;
+
+    @Param({ "weighted", "compact", "rem", "rank" })
+    private String algorithm;
+
+    private IntFunction<UnionFind> factory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        factory = UnionFindAlgorithm.byName(algorithm).factory();
+    }
+
+    /**
+     * Forest of the requested shape, rebuilt before every invocation
+     */
+    @State(Scope.Thread)
+    public static class Forest {
+        @Param({ "star", "binomial", "random" })
+        private String shape;
+
+        private UnionFind uf;
+
+        @Setup(Level.Invocation)
+        public void build(UnionFindBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom(42);
+            uf = benchmark.factory.apply(SIZE);
+            switch (shape) {
+            case "star":
+                for (int i = 1; i < SIZE; i++) uf.union(0, i);
+                break;
+            case "binomial":
+                for (int step = 1; step < SIZE; step <<= 1)
+                    for (int i = 0; i + step < SIZE; i += step << 1)
+                        uf.union(i, i + step);
+                break;
+            case "random":
+                for (int i = 0; i < SIZE; i++) uf.union(random.nextInt(SIZE), random.nextInt(SIZE));
+                break;
+            default:
+                throw new IllegalArgumentException(shape);
+            }
+        }
+    }
+
+    /**
+     * Random pairs to union, drawn once
+     */
+    @State(Scope.Thread)
+    public static class Pairs {
+        private final int[] p = new int[SIZE];
+        private final int[] q = new int[SIZE];
+
+        @Setup(Level.Trial)
+        public void draw() {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < SIZE; i++) {
+                p[i] = random.nextInt(SIZE);
+                q[i] = random.nextInt(SIZE);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(SIZE)
+    public int findSweep(Forest forest) {
+        int sum = 0;
+        for (int i = 0; i < SIZE; i++) sum += forest.uf.find(i);
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(SIZE)
+    public UnionFind unionRandom(Pairs pairs) {
+        UnionFind uf = factory.apply(SIZE);
+        for (int i = 0; i < SIZE; i++) uf.union(pairs.p[i], pairs.q[i]);
+        return uf;
+    }
+}
@@ -0,0 +1,158 @@
+package main;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+import main.percolation.AdaptivePercolationStats;
+import main.percolation.Percolation;
+import main.percolation.PercolationEngine;
+import main.percolation.PercolationModel;
+import main.percolation.PercolationStats;
+import main.percolation.UnionFindAlgorithm;
+
+/*
+    Headless entry point for batch jobs: runs PercolationStats and prints the result as CSV or JSON.
+    Nothing here touches java.awt, so no display is needed.
+
+    java -jar PercolationBatch.jar --n 1000 --trials 10000 --threads 16 --seed 42 --engine compact --format json
+
+    With --epsilon the trials go on until the 95% confidence half-width is at most epsilon
+    (AdaptivePercolationStats); --trials is then the most to run and --budget the most seconds to spend.
+*/
+
+public class BatchRunner {
+    private static final String USAGE =
+            "usage: BatchRunner --n <grid size> --trials <count> [--threads <count>] [--seed <long>]\n"
+          + "                   [--engine percolation|single-union|compact|concurrent] [--format csv|json]\n"
+          + "                   [--union-find weighted|compact|rem|rank|quick-find|rollback] [--model site|bond]\n"
+          + "                   [--epsilon <half-width> [--budget <seconds>]] [--out <file>]";
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        int n = 0;
+        int trials = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        PercolationEngine engine = PercolationEngine.PERCOLATION;
+        UnionFindAlgorithm unionFind = null;
+        String model = "site";
+        String format = "csv";
+        String out = null;
+        double epsilon = 0;
+        double budget = 0;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 == args.length) throw new IllegalArgumentException("missing value for " + option);
+                String value = args[++i];
+                switch (option) {
+                case "--n":              n = Integer.parseInt(value); break;
+                case "--trials":         trials = Integer.parseInt(value); break;
+                case "--threads":        threads = Integer.parseInt(value); break;
+                case "--seed":           seed = Long.parseLong(value); break;
+                case "--engine":         engine = PercolationEngine.byName(value); break;
+                case "--union-find":     unionFind = UnionFindAlgorithm.byName(value); break;
+                case "--model":          model = value; break;
+                case "--format":         format = value; break;
+                case "--out":            out = value; break;
+                case "--epsilon":        epsilon = Double.parseDouble(value); break;
+                case "--budget":         budget = Double.parseDouble(value); break;
+                default:                 throw new IllegalArgumentException("unknown option " + option);
+                }
+            }
+            if (epsilon != 0 && trials == 0) trials = Integer.MAX_VALUE;
+            if (n < 1 || trials < 1 || threads < 1)
+                throw new IllegalArgumentException("--n, --trials and --threads must be positive");
+            if (epsilon < 0 || budget < 0 || budget > 0 && epsilon == 0)
+                throw new IllegalArgumentException("--epsilon must be positive, and --budget needs it");
+            if (epsilon > 0 && model.equals("bond"))
+                throw new IllegalArgumentException("--epsilon only applies to site percolation");
+            if (!format.equals("csv") && !format.equals("json"))
+                throw new IllegalArgumentException("unknown format " + format);
+            if (unionFind != null && engine != PercolationEngine.PERCOLATION)
+                throw new IllegalArgumentException("--union-find only applies to the percolation engine");
+            if (!model.equals("site") && !model.equals("bond"))
+                throw new IllegalArgumentException("unknown model " + model);
+            if (model.equals("bond") && (n < 2 || engine != PercolationEngine.PERCOLATION || unionFind != null))
+                throw new IllegalArgumentException("bond percolation runs on its own engine, with --n at least 2");
+        } catch (IllegalArgumentException e) {   // NumberFormatException too
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        IntFunction<PercolationModel> factory = engine.factory();
+        String engineName = model.equals("bond") ? "bond" : engine.getName();
+        if (unionFind != null) {
+            UnionFindAlgorithm algorithm = unionFind;
+            factory = size -> new Percolation(size, algorithm.factory());
+            engineName += "/" + unionFind.getName();
+        }
+
+        long start = System.nanoTime();
+        double mean, stddev, confidenceLo, confidenceHi;
+        if (epsilon > 0) {
+            long budgetMillis = budget > 0 ? (long) (budget * 1000) : Long.MAX_VALUE;
+            AdaptivePercolationStats stats = new AdaptivePercolationStats(n, epsilon, trials, budgetMillis, seed, threads, factory);
+            trials = stats.trials();
+            mean = stats.mean();
+            stddev = stats.stddev();
+            confidenceLo = stats.confidenceLo();
+            confidenceHi = stats.confidenceHi();
+            if (!stats.converged())
+                System.err.println(String.format(Locale.ROOT, "stopped after %d trials, half-width %s > %s",
+                        trials, stats.halfWidth(), epsilon));
+        }
+        else {
+            PercolationStats stats = model.equals("bond")
+                    ? PercolationStats.bonds(n, trials, seed, threads)
+                    : new PercolationStats(n, trials, seed, threads, factory);
+            mean = stats.mean();
+            stddev = stats.stddev();
+            confidenceLo = stats.confidenceLo();
+            confidenceHi = stats.confidenceHi();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        PrintStream output = System.out;
+        if (out != null) {
+            try {
+                output = new PrintStream(out);
+            } catch (FileNotFoundException e) {
+                System.err.println("cannot write " + out + ": " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        }
+        try {
+            if (format.equals("csv")) {
+                output.println("engine,n,trials,threads,seed,mean,stddev,confidenceLo,confidenceHi,seconds");
+                output.println(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%s,%s,%s,%s,%.3f",
+                        engineName, n, trials, threads, seed,
+                        mean, stddev, confidenceLo, confidenceHi, seconds));
+            } else {
+                output.println(String.format(Locale.ROOT,
+                        "{\"engine\":\"%s\",\"n\":%d,\"trials\":%d,\"threads\":%d,\"seed\":%d,"
+                      + "\"mean\":%s,\"stddev\":%s,\"confidenceLo\":%s,\"confidenceHi\":%s,\"seconds\":%.3f}",
+                        engineName, n, trials, threads, seed,
+                        json(mean), json(stddev), json(confidenceLo), json(confidenceHi), seconds));
+            }
+        } finally {
+            // only close the file opened here: System.out stays usable for the rest of the JVM
+            if (output == System.out) output.flush();
+            else                      output.close();
+        }
+    }
+
+    /**
+     * JSON has no NaN (the stddev of a single trial), write null instead
+     */
+    private static String json(double x) {
+        return Double.isNaN(x) ? "null" : Double.toString(x);
+    }
+}
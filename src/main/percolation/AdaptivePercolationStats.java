@@ -0,0 +1,161 @@
+package main.percolation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+/*
+    PercolationStats without a fixed number of trials: runs batches of trials until the
+    95% confidence interval of p* is narrow enough, or the time is up.
+
+        after each batch    mean and variance updated online (Welford), in trial order
+        stop when           1.96 * stddev / sqrt(trials) <= epsilon    (at least MIN_TRIALS trials)
+                            or the time budget is spent, or maxTrials trials were run
+
+    The next batch aims at the number of trials the current variance asks for,
+    (1.96 * stddev / epsilon)^2, but at most doubles the trials so far: an early, noisy
+    variance cannot schedule a huge batch. The batches depend on the thresholds only.
+
+    The trials are those of PercolationStats, run by the same TrialRunner: trial i draws from
+    the i-th stream split from the seed, so without a time budget the batches, the trials and
+    the result do not depend on the number of threads.
+    The budget is checked between batches, so the last batch can overrun it.
+*/
+
+public class AdaptivePercolationStats {
+    /**
+     * Fewer trials give a variance too noisy to stop on
+     */
+    private static final int MIN_TRIALS = 30;
+
+    private int trials;
+    private double mean;
+    private double m2;                 // sum of the squared deviations from the mean
+    private final boolean converged;
+    private final double seconds;
+
+    /**
+     * Runs trials on an n-by-n grid until the 95% confidence half-width is at most epsilon
+     * @param n to set an n-by-n percolation grid
+     * @param epsilon target half-width of the 95% confidence interval
+     * @param maxTrials stop after that many trials anyway
+     * @param budgetMillis stop after the batch that spends this time anyway, {@code Long.MAX_VALUE} for none
+     * @param seed makes the experiments reproducible
+     * @param threads parallelism of the fork-join pool
+     * @param engine creates the percolation systems of the trials, e.g. {@code SingleUnionPercolation::new}
+     */
+    public AdaptivePercolationStats(int n, double epsilon, int maxTrials, long budgetMillis, long seed, int threads,
+                                    IntFunction<? extends PercolationModel> engine) {
+        if (!(epsilon > 0) || maxTrials < 1 || budgetMillis < 0 || threads < 1)
+            throw new IllegalArgumentException();
+
+        TrialRunner runner = new TrialRunner(TrialRunner.sites(n), TrialRunner.sites(engine, n));
+
+        long start = System.nanoTime();
+        SplittableRandom root = new SplittableRandom(seed);
+        boolean converged = false;
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            while (true) {
+                int batch = Math.min(nextBatch(epsilon), maxTrials - trials);
+                SplittableRandom[] streams = new SplittableRandom[batch];
+                for (int i = 0; i < batch; i++) streams[i] = root.split();
+
+                double[] thresholds = new double[batch];
+                runner.run(pool, streams, thresholds, null);
+                for (double x : thresholds) add(x);
+
+                converged = trials >= MIN_TRIALS && halfWidth() <= epsilon;
+                if (converged || trials == maxTrials) break;
+                if ((System.nanoTime() - start) / 1_000_000 >= budgetMillis) break;
+            }
+        } finally {
+            pool.shutdown();
+        }
+        this.converged = converged;
+        seconds = (System.nanoTime() - start) / 1e9;
+    }
+
+    /**
+     * @return the number of trials to run next, at least one
+     */
+    private int nextBatch(double epsilon) {
+        long wanted;
+        if (trials < MIN_TRIALS) {
+            wanted = MIN_TRIALS - trials;
+        }
+        else {
+            double needed = Math.pow(TrialRunner.CONFIDENCE_95 * stddev() / epsilon, 2);
+            wanted = Math.min((long) Math.ceil(needed) - trials, trials);   // at most doubles
+        }
+        wanted = Math.max(wanted, 1);
+        return (int) Math.min(wanted, Integer.MAX_VALUE - trials);
+    }
+
+    /**
+     * Welford's update of the mean and the squared deviations
+     */
+    private void add(double x) {
+        trials++;
+        double delta = x - mean;
+        mean += delta / trials;
+        m2 += delta * (x - mean);
+    }
+
+    /**
+     * @return sample mean of the percolation threshold
+     */
+    public double mean() {
+        return mean;
+    }
+
+    /**
+     * @return sample standard deviation of the percolation threshold ({@code NaN} for a single trial)
+     */
+    public double stddev() {
+        return trials > 1 ? Math.sqrt(m2 / (trials - 1)) : Double.NaN;
+    }
+
+    /**
+     * @return half-width of the 95% confidence interval
+     */
+    public double halfWidth() {
+        return TrialRunner.halfWidth(stddev(), trials);
+    }
+
+    /**
+     * @return low endpoint of the 95% confidence interval
+     */
+    public double confidenceLo() {
+        return mean - halfWidth();
+    }
+
+    /**
+     * @return high endpoint of the 95% confidence interval
+     */
+    public double confidenceHi() {
+        return mean + halfWidth();
+    }
+
+    /**
+     * @return number of trials it took
+     */
+    public int trials() {
+        return trials;
+    }
+
+    /**
+     * @return {@code true} if the half-width reached epsilon, {@code false} if the budget or maxTrials stopped it
+     */
+    public boolean converged() {
+        return converged;
+    }
+
+    /**
+     * @return time spent on the trials
+     */
+    public double seconds() {
+        return seconds;
+    }
+}
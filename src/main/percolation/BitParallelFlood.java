@@ -0,0 +1,184 @@
+package main.percolation;
+
+/*
+    Full sites of a whole grid, 64 sites per operation.
+
+    Each row is packed in a long[]: site (row, col) is bit (col & 63) of word (col >>> 6).
+    The full sites of a row are the open runs that hold a seed, a site full from above or below.
+
+    horizontal fill of the seeds s in the open sites m, toward the higher bits:
+
+        m & ~(m + s) | s
+
+    adding s to m makes the carry of the lowest seed of each run ripple to its top,
+    clearing the bits from that seed up; the carries go on from word to word. The fill
+    toward the lower bits is the same on the bit-reversed row, and the fill is the union of both.
+
+    vertical: sweep down (seeds: open & full row above), then up (open & full row below),
+    until a sweep changes nothing. Straight paths need 2 sweeps, a path that winds up and down
+    k times needs about k + 1.
+*/
+
+public class BitParallelFlood {
+    /**
+     * Used to set an n-by-n percolation grid
+     */
+    private final int n;
+
+    /**
+     * Words per row
+     */
+    private final int words;
+
+    private final long[][] open;
+    private final long[][] full;
+    private final boolean percolates;
+
+    /**
+     * Number of sweeps until the fixpoint, the last one changing nothing
+     */
+    private int sweeps;
+
+    /**
+     * Scratch rows of the fill
+     */
+    private final long[] seeds;
+    private final long[] reversedOpen;
+    private final long[] reversedSeeds;
+
+    /**
+     * @param open {@code open[row]} is the packed row, {@code (n + 63) / 64} words; bits beyond n are ignored
+     * @param n to set an n-by-n percolation grid
+     */
+    public BitParallelFlood(long[][] open, int n) {
+        if (n < 1 || open.length != n)
+            throw new IllegalArgumentException();
+
+        this.n = n;
+        words = (n + 63) >>> 6;
+        long last = n % 64 == 0 ? -1L : (1L << n) - 1;   // only the low n % 64 bits, shifts are mod 64
+
+        this.open = new long[n][];
+        for (int row = 0; row < n; row++) {
+            if (open[row].length != words)
+                throw new IllegalArgumentException("row " + row + " has " + open[row].length + " words, expected " + words);
+            this.open[row] = open[row].clone();
+            this.open[row][words - 1] &= last;
+        }
+
+        full = new long[n][words];
+        seeds = new long[words];
+        reversedOpen = new long[words];
+        reversedSeeds = new long[words];
+
+        System.arraycopy(this.open[0], 0, full[0], 0, words);   // the first row is full where open
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int row = 1; row < n; row++)      changed |= fillFrom(row, row - 1);
+            for (int row = n - 2; row >= 0; row--) changed |= fillFrom(row, row + 1);
+            sweeps++;
+        }
+
+        boolean bottomFull = false;
+        for (long word : full[n - 1]) bottomFull |= word != 0;
+        percolates = bottomFull;
+    }
+
+    /**
+     * Packs a grid
+     * @param open {@code open[row][col]} tells if the site is open, n-by-n
+     * @return the packed rows
+     */
+    public static long[][] pack(boolean[][] open) {
+        int n = open.length;
+        long[][] packed = new long[n][(n + 63) >>> 6];
+        for (int row = 0; row < n; row++) {
+            if (open[row].length != n) throw new IllegalArgumentException("the grid must be n-by-n");
+            for (int col = 0; col < n; col++) {
+                if (open[row][col]) packed[row][col >>> 6] |= 1L << col;
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Fills the open runs of a row reached from a neighbor row
+     * @return {@code true} if the row got new full sites
+     */
+    private boolean fillFrom(int row, int neighbor) {
+        long[] m = open[row];
+        long[] f = full[row];
+        long[] from = full[neighbor];
+
+        boolean any = false;
+        for (int w = 0; w < words; w++) {
+            seeds[w] = m[w] & from[w] & ~f[w];
+            any |= seeds[w] != 0;
+        }
+        if (!any) return false;   // the runs of the old full sites are full already
+
+        // toward the higher bits
+        long carry = 0;
+        for (int w = 0; w < words; w++) {
+            long sum = m[w] + seeds[w] + carry;
+            carry = ((m[w] & seeds[w]) | ((m[w] | seeds[w]) & ~sum)) >>> 63;
+            f[w] |= (m[w] & ~sum) | seeds[w];
+        }
+
+        // toward the lower bits: the same on the reversed row
+        for (int w = 0; w < words; w++) {
+            reversedOpen[words - 1 - w] = Long.reverse(m[w]);
+            reversedSeeds[words - 1 - w] = Long.reverse(seeds[w]);
+        }
+        carry = 0;
+        for (int w = 0; w < words; w++) {
+            long rm = reversedOpen[w];
+            long rs = reversedSeeds[w];
+            long sum = rm + rs + carry;
+            carry = ((rm & rs) | ((rm | rs) & ~sum)) >>> 63;
+            f[words - 1 - w] |= Long.reverse(rm & ~sum);
+        }
+        return true;
+    }
+
+    /**
+     * @return the packed full sites, laid out like the open ones; the array is not copied
+     */
+    public long[][] fullMask() {
+        return full;
+    }
+
+    /**
+     * @param idx the index of the site to verify, from 1 to n*n row by row
+     * @return {@code true} if the site is open and connected to the top row
+     */
+    public boolean isFull(int idx) {
+        checkArgument(idx);
+        int row = (idx - 1) / n;
+        int col = (idx - 1) % n;
+        return (full[row][col >>> 6] >>> col & 1) != 0;
+    }
+
+    /**
+     * @return {@code true} if a full site exists in the bottom row
+     */
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * @return the number of sweeps down and up the grid it took to reach the fixpoint
+     */
+    public int sweeps() {
+        return sweeps;
+    }
+
+    /**
+     * @param idx check if the index represents a position in the grid
+     */
+    private void checkArgument(int idx) {
+        if (idx > n * n || idx < 1)
+            throw new IllegalArgumentException();
+    }
+}
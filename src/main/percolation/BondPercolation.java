@@ -0,0 +1,256 @@
+package main.percolation;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/*
+    Bond percolation on the n-by-n square grid: every site is there, the bonds between
+    neighbor sites open instead.
+
+        horizontal bond h = row*(n-1) + col   joins (row, col) and (row, col+1), n*(n-1) of them
+        vertical bond   v = row*n + col       joins (row, col) and (row+1, col), n*(n-1) of them
+
+    Each kind is a packed bitmap, one bit per bond. Bonds are numbered from 1 to bonds():
+    the horizontal ones first, then the vertical ones.
+
+    Like SingleUnionPercolation, each root of the union-find carries two bits:
+        TOP     some site of the set is in the first row
+        BOTTOM  some site of the set is in the last row
+    A site is full if its set has TOP, so the whole first row is always full.
+*/
+
+public class BondPercolation {
+    private static final byte TOP = 1;
+    private static final byte BOTTOM = 2;
+
+    /**
+     * Direction of a bond from a site
+     */
+    public enum Direction { UP, DOWN, LEFT, RIGHT }
+
+    /**
+     * Used to set an n-by-n percolation grid
+     */
+    private final int n;
+
+    /**
+     * Number of sites, n*n
+     */
+    private final int sites;
+
+    /**
+     * Number of horizontal bonds, also the number of vertical ones
+     */
+    private final int half;
+
+    private int countOpenBonds;
+
+    /**
+     * Has any set ever reached both rows?
+     */
+    private boolean percolates;
+
+    /**
+     * Connects the sites joined by open bonds. Index 0 is unused to keep the 1-indexing of the grid.
+     */
+    private final WeightedQuickUnion uf;
+
+    /**
+     * TOP and BOTTOM bits of every site, only meaningful on roots
+     */
+    private final byte[] rows;
+
+    /**
+     * Open bonds, one bit each
+     */
+    private final long[] horizontal;
+    private final long[] vertical;
+
+    /**
+     * Creates n-by-n grid, with all bonds initially closed
+     * @param n to set an n-by-n percolation grid, from 2 to 32768
+     */
+    public BondPercolation(int n) {
+        // 2n(n-1) bonds must fit in an int
+        if (n < 2 || n > 32768)
+            throw new IllegalArgumentException();
+
+        this.n = n;
+        sites = n * n;
+        half = n * (n - 1);
+        uf = new WeightedQuickUnion(sites + 1);
+        rows = new byte[sites + 1];
+        horizontal = new long[(half + 63) >>> 6];
+        vertical = new long[(half + 63) >>> 6];
+        reset();
+    }
+
+    /**
+     * Closes every bond again, reusing the arrays
+     */
+    public void reset() {
+        uf.reset();
+        Arrays.fill(horizontal, 0);
+        Arrays.fill(vertical, 0);
+        Arrays.fill(rows, (byte) 0);
+        for (int col = 1; col <= n; col++) {
+            rows[col] = TOP;
+            rows[sites - n + col] = BOTTOM;
+        }
+        countOpenBonds = 0;
+        percolates = false;
+    }
+
+    /**
+     * @param site the index of a site, from 1 to n*n
+     * @param direction the side of the site the bond leaves from
+     * @return the number of the bond, from 1 to bonds()
+     * @throws IllegalArgumentException if the bond would leave the grid
+     */
+    public int bond(int site, Direction direction) {
+        checkSite(site);
+        int row = (site - 1) / n;
+        int col = (site - 1) % n;
+        switch (direction) {
+        case LEFT:   if (col > 0)      return 1 + row * (n - 1) + col - 1;     break;
+        case RIGHT:  if (col < n - 1)  return 1 + row * (n - 1) + col;         break;
+        case UP:     if (row > 0)      return 1 + half + (row - 1) * n + col;  break;
+        case DOWN:   if (row < n - 1)  return 1 + half + row * n + col;        break;
+        default:     break;
+        }
+        throw new IllegalArgumentException("no bond " + direction + " of site " + site);
+    }
+
+    /**
+     * Opens the bond between a site and its neighbor, if it is not open already
+     * @param site the index of a site, from 1 to n*n
+     * @param direction the side of the site the bond leaves from
+     */
+    public void openBond(int site, Direction direction) {
+        openBond(bond(site, direction));
+    }
+
+    /**
+     * Opens the bond if it is not open already
+     * @param bond the number of the bond, from 1 to bonds()
+     */
+    public void openBond(int bond) {
+        checkBond(bond);
+        if (!isBondOpen(bond)) openClosed(bond);
+    }
+
+    /**
+     * Opens a valid, closed bond and joins its two sites
+     */
+    private void openClosed(int bond) {
+        int b = bond - 1;
+        int p, q;
+        if (b < half) {
+            horizontal[b >>> 6] |= 1L << b;
+            p = b / (n - 1) * n + b % (n - 1) + 1;
+            q = p + 1;
+        }
+        else {
+            b -= half;
+            vertical[b >>> 6] |= 1L << b;
+            p = b + 1;
+            q = p + n;
+        }
+        countOpenBonds++;
+
+        int rootP = uf.find(p);
+        int rootQ = uf.find(q);
+        if (rootP == rootQ) return;
+
+        byte r = (byte) (rows[rootP] | rows[rootQ]);
+        uf.union(rootP, rootQ);
+        rows[uf.find(rootP)] = r;
+        if (r == (TOP | BOTTOM)) percolates = true;
+    }
+
+    /**
+     * Opens the bonds of {@code bonds[from, to)} in order, see {@code PercolationModel.openAll}
+     * @param bonds numbers of bonds, from 1 to bonds()
+     * @param stopAtPercolation stop right after the bond that made the system percolate
+     * @return the position in {@code bonds} of the bond that made the system percolate, -1 if none did
+     */
+    public int openAll(int[] bonds, int from, int to, boolean stopAtPercolation) {
+        Objects.checkFromToIndex(from, to, bonds.length);
+        boolean percolated = percolates;
+        int first = -1;
+        for (int i = from; i < to; i++) {
+            int bond = bonds[i];
+            checkBond(bond);
+            if (isBondOpen(bond)) continue;
+
+            openClosed(bond);
+            if (!percolated && percolates) {
+                percolated = true;
+                first = i;
+                if (stopAtPercolation) break;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * @param bond the number of the bond, from 1 to bonds()
+     * @return {@code true} if the bond is open
+     */
+    public boolean isBondOpen(int bond) {
+        checkBond(bond);
+        int b = bond - 1;
+        if (b < half) return (horizontal[b >>> 6] >>> b & 1) != 0;
+        b -= half;
+        return (vertical[b >>> 6] >>> b & 1) != 0;
+    }
+
+    /**
+     * @param site the index of a site, from 1 to n*n
+     * @param direction the side of the site the bond leaves from
+     * @return {@code true} if the bond is open
+     */
+    public boolean isBondOpen(int site, Direction direction) {
+        return isBondOpen(bond(site, direction));
+    }
+
+    /**
+     * @param site the index of the site to verify, from 1 to n*n
+     * @return {@code true} if the site is connected to the top row through open bonds
+     */
+    public boolean isFull(int site) {
+        checkSite(site);
+        return (rows[uf.find(site)] & TOP) != 0;
+    }
+
+    /**
+     * @return {@code true} if some site of the bottom row is full
+     */
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * @return the number of open bonds
+     */
+    public int numberOfOpenBonds() {
+        return countOpenBonds;
+    }
+
+    /**
+     * @return the number of bonds, 2n(n-1)
+     */
+    public int bonds() {
+        return 2 * half;
+    }
+
+    private void checkSite(int site) {
+        if (site > sites || site < 1)
+            throw new IllegalArgumentException();
+    }
+
+    private void checkBond(int bond) {
+        if (bond > 2 * half || bond < 1)
+            throw new IllegalArgumentException();
+    }
+}
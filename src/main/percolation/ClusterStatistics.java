@@ -0,0 +1,84 @@
+package main.percolation;
+
+import java.util.Arrays;
+
+/*
+    Cluster statistics kept up to date as sites open, so none of them needs a scan of the grid.
+
+        histogram[s]  number of clusters of exactly s open sites
+        clusters      number of clusters, i.e. the sum of the histogram
+        largest       size of the largest cluster
+
+    open a site:      histogram[1]++, clusters++
+    merge a and b:    histogram[a]--, histogram[b]--, histogram[a + b]++, clusters--
+    Clusters only grow, so the largest one is the max of its old size and a + b.
+*/
+
+public class ClusterStatistics {
+    /**
+     * Number of clusters of each size, index 0 unused
+     */
+    private final int[] histogram;
+
+    private int clusters;
+    private int largest;
+
+    /**
+     * @param sites number of sites of the grid, the biggest possible cluster
+     */
+    ClusterStatistics(int sites) {
+        histogram = new int[sites + 1];
+    }
+
+    /**
+     * A site was opened, as a cluster of its own
+     */
+    void added() {
+        histogram[1]++;
+        clusters++;
+        if (largest == 0) largest = 1;
+    }
+
+    /**
+     * Two distinct clusters were joined
+     * @param sizeP size of one cluster before the union
+     * @param sizeQ size of the other one
+     */
+    void merged(int sizeP, int sizeQ) {
+        histogram[sizeP]--;
+        histogram[sizeQ]--;
+        histogram[sizeP + sizeQ]++;
+        clusters--;
+        largest = Math.max(largest, sizeP + sizeQ);
+    }
+
+    void reset() {
+        Arrays.fill(histogram, 0);
+        clusters = 0;
+        largest = 0;
+    }
+
+    /**
+     * @return number of clusters of open sites
+     */
+    public int clusters() {
+        return clusters;
+    }
+
+    /**
+     * @return number of open sites of the largest cluster, 0 if no site is open
+     */
+    public int largestCluster() {
+        return largest;
+    }
+
+    /**
+     * @param size a number of sites
+     * @return number of clusters of exactly {@code size} open sites
+     */
+    public int clustersOfSize(int size) {
+        if (size < 1 || size >= histogram.length)
+            throw new IllegalArgumentException("size " + size + " is not between 1 and " + (histogram.length - 1));
+        return histogram[size];
+    }
+}
@@ -0,0 +1,95 @@
+package main.percolation;
+
+import java.util.Arrays;
+
+// WeightedQuickUnion in a single array: 4 bytes per element instead of 8
+
+public class CompactUnionFind implements UnionFind {
+    private final int[] parent;   // parent[i] >= 0: parent of i; parent[i] < 0: i is a root and -parent[i] is its size
+
+    private static final UnionFindMetrics METRICS = UnionFindMetrics.register("CompactUnionFind");
+
+    public CompactUnionFind(int arraySize) {
+        parent = new int[arraySize];
+        reset();
+    }
+
+    /**
+     * Splits every set again, back to the state of a new object
+     */
+    public void reset() {
+        Arrays.fill(parent, -1);        // Initially each element is the root of itself, size 1
+    }
+
+    /**
+     * Returns the canonical element of the set containing element {@code i}.
+     *
+     * @param  i an element
+     * @return the canonical element of the set containing {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < n}
+     */
+    public int find(int i) {
+        validate(i);
+        int p;
+        int steps = 0;
+        while ((p = parent[i]) >= 0) {
+            steps++;
+            int grandparent = parent[p];
+            if (grandparent < 0) {
+                i = p;
+                break;
+            }
+            parent[i] = grandparent;         // path halving, as in WeightedQuickUnion
+            i = grandparent;
+        }
+        if (UnionFindMetrics.ENABLED) METRICS.find(steps);
+        return i;
+    }
+
+    /**
+     * Check if p and q have same root
+     */
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    /**
+     * Merges the set containing element {@code p} with the 
+     * the set containing element {@code q}.
+     *
+     * @param  p one element
+     * @param  q the other element
+     * @throws IllegalArgumentException unless
+     *         both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public void union(int p, int q) { // O(logN)
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (UnionFindMetrics.ENABLED) METRICS.union(rootP != rootQ);
+        if (rootP == rootQ) return;
+        // sizes are stored negated: the bigger set has the smaller value
+        if (parent[rootP] > parent[rootQ]) {
+            parent[rootQ] += parent[rootP];
+            parent[rootP] = rootQ;
+        }
+        else {
+            parent[rootP] += parent[rootQ];
+            parent[rootQ] = rootP;
+        }
+    }
+
+    /**
+     * @param i an element
+     * @return the number of elements in the set containing {@code i}
+     */
+    public int size(int i) {
+        return -parent[find(i)];
+    }
+
+    private void validate(int p) {
+        int n = parent.length;
+        if (p < 0 || p >= n) {
+            throw new IllegalArgumentException("index " + p + " is not between 0 and " + (n-1));  
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package main.percolation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    Percolation that many threads can open at the same time, to fill one giant grid with every core.
+
+    Same layout as Percolation (virtual top and bottom, a second union-find without the
+    virtual bottom against backwash), on ConcurrentUnionFind.
+
+    open(idx):  1. set the open bit with a CAS, only the winner goes on
+                2. union with every neighbor whose open bit is set
+    If two neighbors are opened together, each one sets its bit before reading the other's,
+    so at least one of them sees the other and the union is never lost.
+*/
+
+public class ConcurrentPercolation implements PercolationModel {
+    /**
+     * Used to set an n-by-n percolation grid
+     */
+    private final int n;
+
+    /**
+     * Grid size + virtual top + virtual bottom
+     */
+    private final int length;
+
+    private final int virtualTop;
+    private final int virtualBottom;
+
+    /**
+     * Striped, so the threads opening sites do not all contend on one counter
+     */
+    private final LongAdder countOpenSites = new LongAdder();
+
+    /**
+     * Connects top, sites and bottom
+     */
+    private final ConcurrentUnionFind percolation;
+
+    /**
+     * Connects top and sites only, a site is full if connected to the virtualTop here
+     */
+    private final ConcurrentUnionFind full;
+
+    /**
+     * One bit per site
+     */
+    private final AtomicLongArray openSites;
+
+    /**
+     * Creates n-by-n grid, with all sites initially blocked
+     * @param n to set an n-by-n percolation grid
+     */
+    public ConcurrentPercolation(int n) {
+        if (n < 1 || n > 46340)
+            throw new IllegalArgumentException();
+
+        this.n = n;
+        length = n*n + 2;
+        virtualTop = 0;
+        virtualBottom = length - 1;
+
+        percolation = new ConcurrentUnionFind(length);
+        full = new ConcurrentUnionFind(length);
+        openSites = new AtomicLongArray((length >>> 6) + 1);
+
+        connectVirtualSites();
+    }
+
+    /**
+     * Connects the virtual top to first row's sites and virtual bottom to the last row
+     */
+    private void connectVirtualSites() {
+        for (int i = 1; i <= n; i++) {
+            full.union(virtualTop, i);
+            percolation.union(virtualTop, i);
+            percolation.union(virtualBottom, virtualBottom-i);
+        }
+    }
+
+    /**
+     * Blocks every site again. Not atomic: no other operation may run meanwhile.
+     */
+    @Override
+    public void reset() {
+        percolation.reset();
+        full.reset();
+        for (int i = 0; i < openSites.length(); i++) openSites.set(i, 0);
+        countOpenSites.reset();
+        connectVirtualSites();
+    }
+
+    @Override
+    public void open(int idx) {
+        checkArgument(idx);
+        if (!setOpen(idx)) return;
+        countOpenSites.increment();
+
+        if (idx - n >= 1)        neighborUnion(idx-n, idx); // if has up neighbor 
+        if (idx + n <= length-2) neighborUnion(idx+n, idx); // if has down neighbor
+        if ((idx - 1) % n != 0)  neighborUnion(idx-1, idx); // if has left neighbor
+        if (idx % n != 0)        neighborUnion(idx+1, idx); // if has right neighbor
+    }
+
+    /**
+     * @return {@code true} if this call opened the site, {@code false} if it was open already
+     */
+    private boolean setOpen(int idx) {
+        int word = idx >>> 6;
+        long bit = 1L << idx;
+        while (true) {
+            long bits = openSites.get(word);
+            if ((bits & bit) != 0) return false;
+            if (openSites.compareAndSet(word, bits, bits | bit)) return true;
+        }
+    }
+
+    private boolean getOpen(int idx) {
+        return (openSites.get(idx >>> 6) & (1L << idx)) != 0;
+    }
+
+    private void neighborUnion(int neighborIdx, int idx) {
+        if (getOpen(neighborIdx)) {
+            percolation.union(neighborIdx, idx);
+            full.union(neighborIdx, idx);
+        }
+    }
+
+    @Override
+    public boolean isOpen(int idx) {
+        checkArgument(idx);
+        return getOpen(idx);
+    }
+
+    @Override
+    public boolean isFull(int idx) {
+        return isOpen(idx) && full.connected(idx, virtualTop);
+    }
+
+    @Override
+    public int numberOfOpenSites() {
+        return countOpenSites.intValue();
+    }
+
+    @Override
+    public boolean percolates() {
+        return n > 1 ? percolation.connected(virtualBottom, virtualTop) : getOpen(1);
+    }
+
+    /**
+     * @param idx check if the index represents a position in the grid
+     */
+    private void checkArgument(int idx) {
+        if (idx > length - 2 || idx < 1)
+            throw new IllegalArgumentException();
+    }
+}
@@ -0,0 +1,109 @@
+package main.percolation;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+    Lock-free union-find, safe to call from many threads at once.
+
+    find:    path halving, each shortcut is a CAS that replaces a parent by one of its
+             ancestors, so a failed or stale CAS never breaks a tree
+    union:   links the root of lower priority below the other one with a CAS on the
+             root's own slot, retrying if it stopped being a root meanwhile
+    priority: a fixed pseudo-random bijection of the index ("randomized linking by index"),
+             which keeps the trees shallow on average without a size array to update
+*/
+
+public class ConcurrentUnionFind {
+    private final AtomicIntegerArray parent;   // parent[i] = parent of i, parent[i] == i for roots
+
+    public ConcurrentUnionFind(int arraySize) {
+        parent = new AtomicIntegerArray(arraySize);
+        reset();
+    }
+
+    /**
+     * Splits every set again. Not atomic: no other operation may run meanwhile.
+     */
+    public void reset() {
+        for (int i = 0; i < parent.length(); i++) {
+            parent.set(i, i);                  // Initially each element is the root of itself
+        }
+    }
+
+    /**
+     * Returns the canonical element of the set containing element {@code i}.
+     * With concurrent unions the answer may already be stale when it returns.
+     *
+     * @param  i an element
+     * @return the canonical element of the set containing {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < n}
+     */
+    public int find(int i) {
+        validate(i);
+        while (true) {
+            int p = parent.get(i);
+            if (p == i) return i;
+            int grandparent = parent.get(p);
+            if (p != grandparent) parent.compareAndSet(i, p, grandparent);
+            i = grandparent;
+        }
+    }
+
+    /**
+     * Check if p and q have same root.
+     * The answer is exact at some instant during the call.
+     */
+    public boolean connected(int p, int q) {
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) return true;
+            // rootQ was found after rootP: if rootP is still a root, they were apart in between
+            if (parent.get(rootP) == rootP) return false;
+        }
+    }
+
+    /**
+     * Merges the set containing element {@code p} with the 
+     * the set containing element {@code q}.
+     *
+     * @param  p one element
+     * @param  q the other element
+     * @throws IllegalArgumentException unless
+     *         both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public void union(int p, int q) {
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) return;
+
+            if (priority(rootP) > priority(rootQ)) {
+                int swap = rootP;
+                rootP = rootQ;
+                rootQ = swap;
+            }
+            // fails if rootP got linked by another thread, then try again from the new roots
+            if (parent.compareAndSet(rootP, rootP, rootQ)) return;
+        }
+    }
+
+    /**
+     * Murmur3 finalizer: a bijection on int, so no two elements share a priority
+     */
+    private static int priority(int i) {
+        i ^= i >>> 16;
+        i *= 0x85ebca6b;
+        i ^= i >>> 13;
+        i *= 0xc2b2ae35;
+        i ^= i >>> 16;
+        return i;
+    }
+
+    private void validate(int p) {
+        int n = parent.length();
+        if (p < 0 || p >= n) {
+            throw new IllegalArgumentException("index " + p + " is not between 0 and " + (n-1));  
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package main.percolation;
+
+import java.util.Arrays;
+
+// CompactUnionFind whose elements are added one at a time, the array doubles when it is full
+
+public class GrowableUnionFind implements UnionFind {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] parent;   // parent[i] >= 0: parent of i; parent[i] < 0: i is a root and -parent[i] is its size
+    private int count;      // number of elements
+
+    public GrowableUnionFind() {
+        reset();
+    }
+
+    /**
+     * Removes every element and gives the memory of a big array back
+     */
+    @Override
+    public void reset() {
+        parent = new int[INITIAL_CAPACITY];
+        count = 0;
+    }
+
+    /**
+     * Adds an element in a set of its own
+     * @return the new element, {@code count() - 1}
+     */
+    public int add() {
+        if (count == parent.length) {
+            if (count == Integer.MAX_VALUE - 8)
+                throw new IllegalStateException("too many elements");
+            parent = Arrays.copyOf(parent, (int) Math.min(2L * count, Integer.MAX_VALUE - 8));
+        }
+        parent[count] = -1;
+        return count++;
+    }
+
+    /**
+     * @return the number of elements
+     */
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public int find(int i) {
+        validate(i);
+        int p;
+        while ((p = parent[i]) >= 0) {
+            int grandparent = parent[p];
+            if (grandparent < 0) return p;
+            parent[i] = grandparent;         // path halving
+            i = grandparent;
+        }
+        return i;
+    }
+
+    @Override
+    public void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return;
+        // sizes are stored negated: the bigger set has the smaller value
+        if (parent[rootP] > parent[rootQ]) {
+            parent[rootQ] += parent[rootP];
+            parent[rootP] = rootQ;
+        }
+        else {
+            parent[rootP] += parent[rootQ];
+            parent[rootQ] = rootP;
+        }
+    }
+
+    /**
+     * @param i an element
+     * @return the number of elements in the set containing {@code i}
+     */
+    public int size(int i) {
+        return -parent[find(i)];
+    }
+
+    private void validate(int p) {
+        if (p < 0 || p >= count) {
+            throw new IllegalArgumentException("index " + p + " is not between 0 and " + (count-1));
+        }
+    }
+}
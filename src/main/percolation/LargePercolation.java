@@ -0,0 +1,197 @@
+package main.percolation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/*
+    SingleUnionPercolation for grids beyond 46340x46340, whose n*n overflows an int.
+
+    Sites are indexed by long (1 to n*n, row by row) and all the state lives off-heap:
+        parent      OffHeapUnionFind, 8 bytes per site
+        state       4 bits per site (OPEN, TOP, BOTTOM), 16 sites per long
+
+    about 8.5 bytes per site: 100k x 100k is 85 GB, so for such grids pass a directory
+    and let the operating system page the memory-mapped files.
+*/
+
+public class LargePercolation implements Closeable {
+    private static final int OPEN = 1;
+    private static final int TOP = 2;
+    private static final int BOTTOM = 4;
+
+    /**
+     * Used to set an n-by-n percolation grid
+     */
+    private final long n;
+
+    /**
+     * Number of sites, n*n
+     */
+    private final long sites;
+
+    /**
+     * Number of open sites
+     */
+    private long countOpenSites;
+
+    /**
+     * Has any set ever reached both rows?
+     */
+    private boolean percolates;
+
+    /**
+     * Connects the open neighbor sites. Index 0 is unused to keep the 1-indexing of the grid.
+     */
+    private final OffHeapUnionFind uf;
+
+    /**
+     * OPEN bit for every site; TOP and BOTTOM bits are only meaningful on roots
+     */
+    private final OffHeapLongArray state;
+
+    /**
+     * Creates n-by-n grid in direct memory, with all sites initially blocked
+     * @param n to set an n-by-n percolation grid
+     */
+    public LargePercolation(long n) {
+        checkSize(n);
+        this.n = n;
+        sites = n * n;
+        uf = new OffHeapUnionFind(sites + 1);
+        state = new OffHeapLongArray((sites >>> 4) + 1);
+    }
+
+    /**
+     * Creates n-by-n grid backed by the memory-mapped files {@code parent} and {@code state}
+     * in the given directory, with all sites initially blocked
+     * @param n to set an n-by-n percolation grid
+     * @param directory where the files are created; they must not exist or be empty
+     * @throws java.nio.file.FileAlreadyExistsException if a file is left over, not empty, from an earlier run
+     * @throws IOException if the files can't be mapped
+     */
+    public LargePercolation(long n, Path directory) throws IOException {
+        checkSize(n);
+        this.n = n;
+        sites = n * n;
+        uf = new OffHeapUnionFind(sites + 1, directory.resolve("parent"));
+        try {
+            state = new OffHeapLongArray((sites >>> 4) + 1, directory.resolve("state"));
+        } catch (IOException e) {
+            uf.close();
+            throw e;
+        }
+    }
+
+    private static void checkSize(long n) {
+        if (n < 1 || n > 3037000499L)     // n*n + 1 must fit in a long
+            throw new IllegalArgumentException();
+    }
+
+    private int getState(long idx) {
+        return (int) (state.get(idx >>> 4) >>> ((idx & 15) << 2)) & 0xF;
+    }
+
+    private void addState(long idx, int bits) {
+        long word = idx >>> 4;
+        state.set(word, state.get(word) | ((long) bits << ((idx & 15) << 2)));
+    }
+
+    /**
+     * Blocks every site again, reusing the off-heap arrays (and files)
+     */
+    public void reset() {
+        uf.reset();
+        state.clear();
+        countOpenSites = 0;
+        percolates = false;
+    }
+
+    /**
+     * Opens the site if it is not open already
+     * @param idx the index of the site to open
+     */
+    public void open(long idx) {
+        checkArgument(idx);
+        if ((getState(idx) & OPEN) != 0) return;
+
+        int s = OPEN;
+        if (idx <= n)         s |= TOP;
+        if (idx > sites - n)  s |= BOTTOM;
+        addState(idx, s);
+        countOpenSites++;
+
+        if (idx > n)              neighborUnion(idx - n, idx); // if has up neighbor
+        if (idx <= sites - n)     neighborUnion(idx + n, idx); // if has down neighbor
+        if ((idx - 1) % n != 0)   neighborUnion(idx - 1, idx); // if has left neighbor
+        if (idx % n != 0)         neighborUnion(idx + 1, idx); // if has right neighbor
+
+        if ((getState(uf.find(idx)) & (TOP | BOTTOM)) == (TOP | BOTTOM))
+            percolates = true;
+    }
+
+    /**
+     * Connects a set to a neighbor, if the latter is open, and merges the row bits of both roots
+     * @param neighborIdx the up, down, left or right position adjacent to the idx.
+     * @param idx the index to which the neighborIdx is adjacent
+     */
+    private void neighborUnion(long neighborIdx, long idx) {
+        if ((getState(neighborIdx) & OPEN) == 0) return;
+
+        long rootP = uf.find(neighborIdx);
+        long rootQ = uf.find(idx);
+        if (rootP == rootQ) return;
+
+        int rows = (getState(rootP) | getState(rootQ)) & (TOP | BOTTOM);
+        uf.union(rootP, rootQ);
+        addState(uf.find(rootP), rows);
+    }
+
+    /**
+     * @param idx the index of the site to verify
+     * @return {@code true} if the site is open
+     */
+    public boolean isOpen(long idx) {
+        checkArgument(idx);
+        return (getState(idx) & OPEN) != 0;
+    }
+
+    /**
+     * @param idx the index of the site to verify
+     * @return {@code true} if the site is open and connected to the top row
+     */
+    public boolean isFull(long idx) {
+        return isOpen(idx) && (getState(uf.find(idx)) & TOP) != 0;
+    }
+
+    /**
+     * @return the number of open sites
+     */
+    public long numberOfOpenSites() {
+        return countOpenSites;
+    }
+
+    /**
+     * @return {@code true} if the system percolates
+     */
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * @param idx check if the index represents a position in the grid
+     */
+    private void checkArgument(long idx) {
+        if (idx > sites || idx < 1)
+            throw new IllegalArgumentException();
+    }
+
+    /**
+     * Closes the backing files, if any
+     */
+    @Override
+    public void close() throws IOException {
+        uf.close();
+        state.close();
+    }
+}
@@ -0,0 +1,210 @@
+package main.percolation;
+
+import java.util.Arrays;
+
+/*
+    Neighbors of the sites of a lattice, as offsets of the site index.
+
+    Sites are indexed from 1 to sites(), x first: idx - 1 = x + y*n (+ z*n*n in 3D).
+    Percolation goes along the last axis: the top is its first row (or layer), the bottom its last.
+
+    Along each axis a coordinate is in one of 4 boundary classes:
+        0 interior, 1 first, 2 last, 3 both (n = 1)
+    and the boundary class of a site combines those of its coordinates (4^2 or 4^3 classes).
+    Every site of a class has the same neighbor offsets, so they are computed once per class:
+    finding the neighbors of a site is a division per axis and a table lookup, with no test
+    per neighbor.
+
+        square       4 neighbors
+        torus        square, periodic along x: the first and last columns are neighbors.
+                     Only x wraps, a periodic y would join the top to the bottom.
+        moore        8 neighbors, the diagonals too
+        triangular   6 neighbors: square plus (x+1, y-1) and (x-1, y+1)
+        cubic        6 neighbors in 3D
+*/
+
+public final class Lattice {
+    private static final int[][] SQUARE = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+    private static final int[][] MOORE = {
+        { -1, -1 }, { 0, -1 }, { 1, -1 },
+        { -1,  0 },            { 1,  0 },
+        { -1,  1 }, { 0,  1 }, { 1,  1 } };
+    private static final int[][] TRIANGULAR = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 }, { 1, -1 }, { -1, 1 } };
+    private static final int[][] CUBIC = {
+        { -1, 0, 0 }, { 1, 0, 0 }, { 0, -1, 0 }, { 0, 1, 0 }, { 0, 0, -1 }, { 0, 0, 1 } };
+
+    private final String name;
+
+    /**
+     * Sites per axis
+     */
+    private final int n;
+
+    /**
+     * 2 or 3
+     */
+    private final int dimensions;
+
+    /**
+     * Number of sites, n^dimensions
+     */
+    private final int sites;
+
+    /**
+     * Sites of the first (or last) row or layer, n^(dimensions - 1)
+     */
+    private final int layer;
+
+    /**
+     * Boundary class of each coordinate, 0 to 3
+     */
+    private final byte[] axisClass;
+
+    /**
+     * Neighbor offsets of each boundary class
+     */
+    private final int[][] offsets;
+
+    private Lattice(String name, int n, int[][] vectors, boolean periodicX) {
+        int dimensions = vectors[0].length;
+        long sites = dimensions == 2 ? (long) n * n : (long) n * n * n;
+        if (n < 1 || sites + 2 > Integer.MAX_VALUE)
+            throw new IllegalArgumentException();
+
+        this.name = name;
+        this.n = n;
+        this.dimensions = dimensions;
+        this.sites = (int) sites;
+        layer = dimensions == 2 ? n : n * n;
+
+        axisClass = new byte[n];
+        for (int i = 0; i < n; i++) axisClass[i] = (byte) ((i == 0 ? 1 : 0) | (i == n - 1 ? 2 : 0));
+
+        int[] stride = { 1, n, n * n };
+        offsets = new int[1 << (2 * dimensions)][];
+        for (int c = 0; c < offsets.length; c++) {
+            int[] table = new int[vectors.length];
+            int count = 0;
+            next:
+            for (int[] v : vectors) {
+                int offset = 0;
+                for (int axis = 0; axis < dimensions; axis++) {
+                    int boundary = c >>> (2 * axis) & 3;
+                    boolean outside = v[axis] < 0 && (boundary & 1) != 0 || v[axis] > 0 && (boundary & 2) != 0;
+                    if (!outside)                    offset += v[axis] * stride[axis];
+                    else if (periodicX && axis == 0) offset -= v[axis] * (n - 1);   // wraps to the other side
+                    else                             continue next;
+                }
+                // n = 1 or 2 on a periodic axis: a site can meet itself or the same neighbor twice
+                boolean seen = offset == 0;
+                for (int i = 0; i < count && !seen; i++) seen = table[i] == offset;
+                if (!seen) table[count++] = offset;
+            }
+            offsets[c] = Arrays.copyOf(table, count);
+        }
+    }
+
+    /**
+     * @param n to set an n-by-n lattice
+     * @return the square lattice of {@code Percolation}, 4 neighbors
+     */
+    public static Lattice square(int n) {
+        return new Lattice("square", n, SQUARE, false);
+    }
+
+    /**
+     * @param n to set an n-by-n lattice
+     * @return the square lattice with periodic left and right boundaries
+     */
+    public static Lattice torus(int n) {
+        return new Lattice("torus", n, SQUARE, true);
+    }
+
+    /**
+     * @param n to set an n-by-n lattice
+     * @return the square lattice with 8 neighbors, the diagonals included
+     */
+    public static Lattice moore(int n) {
+        return new Lattice("moore", n, MOORE, false);
+    }
+
+    /**
+     * @param n to set an n-by-n lattice
+     * @return the triangular lattice drawn on a square grid, 6 neighbors
+     */
+    public static Lattice triangular(int n) {
+        return new Lattice("triangular", n, TRIANGULAR, false);
+    }
+
+    /**
+     * @param n to set an n-by-n-by-n lattice, at most 1290
+     * @return the simple cubic lattice, 6 neighbors, percolating from the first layer to the last
+     */
+    public static Lattice cubic(int n) {
+        return new Lattice("cubic", n, CUBIC, false);
+    }
+
+    /**
+     * Neighbor offsets of a site: its neighbors are {@code idx + offsets[i]}
+     * @param idx the index of a site, from 1 to sites()
+     * @return the table shared by every site of the same boundary class, not to be modified
+     */
+    public int[] offsets(int idx) {
+        int i = idx - 1;
+        int rest = i / n;
+        int c = axisClass[i - rest * n];
+        if (dimensions == 2) return offsets[c | axisClass[rest] << 2];
+
+        int z = rest / n;
+        return offsets[c | axisClass[rest - z * n] << 2 | axisClass[z] << 4];
+    }
+
+    /**
+     * @param idx the index of a site, from 1 to sites()
+     * @return {@code true} if the site is in the first row (or layer)
+     */
+    public boolean isTop(int idx) {
+        return idx <= layer;
+    }
+
+    /**
+     * @param idx the index of a site, from 1 to sites()
+     * @return {@code true} if the site is in the last row (or layer)
+     */
+    public boolean isBottom(int idx) {
+        return idx > sites - layer;
+    }
+
+    /**
+     * @return number of sites, n^2 or n^3
+     */
+    public int sites() {
+        return sites;
+    }
+
+    /**
+     * @return sites per axis
+     */
+    public int n() {
+        return n;
+    }
+
+    /**
+     * @return 2 or 3
+     */
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * @return square, torus, moore, triangular or cubic
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + n + (dimensions == 3 ? "^3" : "^2");
+    }
+}
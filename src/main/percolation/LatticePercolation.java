@@ -0,0 +1,139 @@
+package main.percolation;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/*
+    SingleUnionPercolation on any Lattice: the neighbors come from the offset table of the
+    boundary class of the site instead of the four tests of the square grid.
+
+    Each root carries two bits:
+        TOP     some site of the set is in the first row (or layer)
+        BOTTOM  some site of the set is in the last row (or layer)
+    and a union merges the bits of both roots into the new one.
+*/
+
+public class LatticePercolation implements PercolationModel {
+    private static final byte OPEN = 1;
+    private static final byte TOP = 2;
+    private static final byte BOTTOM = 4;
+
+    private final Lattice lattice;
+
+    /**
+     * Number of open sites
+     */
+    private int countOpenSites;
+
+    /**
+     * Has any set ever reached both rows?
+     */
+    private boolean percolates;
+
+    /**
+     * Connects the open neighbor sites. Index 0 is unused to keep the 1-indexing of the lattice.
+     */
+    private final UnionFind uf;
+
+    /**
+     * OPEN bit for every site; TOP and BOTTOM bits are only meaningful on roots
+     */
+    private final byte[] state;
+
+    /**
+     * Creates the system with all sites initially blocked
+     * @param lattice the sites and their neighbors, e.g. {@code Lattice.cubic(100)}
+     */
+    public LatticePercolation(Lattice lattice) {
+        this(lattice, WeightedQuickUnion::new);
+    }
+
+    /**
+     * Creates the system with all sites initially blocked, on another union-find algorithm
+     * @param lattice the sites and their neighbors, e.g. {@code Lattice.cubic(100)}
+     * @param unionFind creates a union-find over sites() + 1 elements
+     */
+    public LatticePercolation(Lattice lattice, IntFunction<? extends UnionFind> unionFind) {
+        this.lattice = lattice;
+        uf = unionFind.apply(lattice.sites() + 1);
+        state = new byte[lattice.sites() + 1];
+    }
+
+    /**
+     * @return the lattice of the system
+     */
+    public Lattice lattice() {
+        return lattice;
+    }
+
+    @Override
+    public void open(int idx) {
+        checkArgument(idx);
+        if ((state[idx] & OPEN) != 0) return;
+
+        byte s = OPEN;
+        if (lattice.isTop(idx))     s |= TOP;
+        if (lattice.isBottom(idx))  s |= BOTTOM;
+        state[idx] |= s;
+        countOpenSites++;
+
+        for (int offset : lattice.offsets(idx)) neighborUnion(idx + offset, idx);
+
+        if ((state[uf.find(idx)] & (TOP | BOTTOM)) == (TOP | BOTTOM))
+            percolates = true;
+    }
+
+    /**
+     * Connects a set to a neighbor, if the latter is open, and merges the row bits of both roots
+     * @param neighborIdx a neighbor of idx
+     * @param idx the index to which the neighborIdx is adjacent
+     */
+    private void neighborUnion(int neighborIdx, int idx) {
+        if ((state[neighborIdx] & OPEN) == 0) return;
+
+        int rootP = uf.find(neighborIdx);
+        int rootQ = uf.find(idx);
+        if (rootP == rootQ) return;
+
+        byte rows = (byte) ((state[rootP] | state[rootQ]) & (TOP | BOTTOM));
+        uf.union(rootP, rootQ);
+        state[uf.find(rootP)] |= rows;
+    }
+
+    @Override
+    public void reset() {
+        uf.reset();
+        Arrays.fill(state, (byte) 0);
+        countOpenSites = 0;
+        percolates = false;
+    }
+
+    @Override
+    public boolean isOpen(int idx) {
+        checkArgument(idx);
+        return (state[idx] & OPEN) != 0;
+    }
+
+    @Override
+    public boolean isFull(int idx) {
+        return isOpen(idx) && (state[uf.find(idx)] & TOP) != 0;
+    }
+
+    @Override
+    public int numberOfOpenSites() {
+        return countOpenSites;
+    }
+
+    @Override
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * @param idx check if the index represents a position in the lattice
+     */
+    private void checkArgument(int idx) {
+        if (idx > lattice.sites() || idx < 1)
+            throw new IllegalArgumentException();
+    }
+}
@@ -0,0 +1,101 @@
+package main.percolation;
+
+/*
+    Map from positive longs to ints, without boxing: open addressing with linear probing.
+
+        keys[slot]    the key, 0 for an empty slot (so 0 can't be a key)
+        values[slot]  its value
+
+    The table doubles once it is half full, so a lookup probes about 1.5 slots,
+    and it costs 24 to 48 bytes per key. There is no removal, only clear().
+*/
+
+public class LongIntHashMap {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntHashMap() {
+        clear();
+    }
+
+    /**
+     * Removes every key and gives the memory of a big table back
+     */
+    public void clear() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+        size = 0;
+    }
+
+    /**
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key a positive key
+     * @return the value of the key, -1 if it is absent
+     */
+    public int get(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long k = keys[slot];
+            if (k == key) return values[slot];
+            if (k == 0)   return -1;
+        }
+    }
+
+    /**
+     * @param key a positive key, not in the map yet
+     * @param value its value
+     */
+    public void put(long key, int value) {
+        if (key <= 0)
+            throw new IllegalArgumentException("key " + key + " is not positive");
+        if (2 * (size + 1) > keys.length) grow();
+
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) throw new IllegalArgumentException("key " + key + " is already in the map");
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private void grow() {
+        if (keys.length == 1 << 30)
+            throw new IllegalStateException("too many keys");
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[2 * oldKeys.length];
+        values = new int[2 * oldKeys.length];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) continue;
+            int slot = slot(oldKeys[i]);
+            while (keys[slot] != 0) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * Home slot of a key: consecutive sites would otherwise fill runs of slots
+     */
+    private int slot(long key) {
+        key ^= key >>> 33;                   // murmur3 finalizer
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+}
@@ -0,0 +1,308 @@
+package main.percolation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+    Newman-Ziff: the whole percolation curve from one sweep per trial.
+
+    trial:  open the n^2 sites in a random order, and for every number k of open sites record
+                - whether the system percolates
+                - the size of the largest cluster
+    Over the trials this gives, for every k:
+        Q(k)  fraction of the trials that percolate with k open sites
+        S(k)  mean largest cluster / n^2
+
+    For a probability p each site is open independently, so k follows a binomial distribution:
+        P(p) = sum_k C(N, k) p^k (1 - p)^(N - k) Q(k),     N = n^2
+    and likewise for the largest cluster. Any number of p values costs no new trial.
+
+    Memory: each trial only records the k at which it first percolated, Q is built from them
+    once the trials are done. The largest clusters are summed, exactly, in one long per k shared
+    by all the threads: each sweep buffers BLOCK values and adds them under a lock.
+*/
+
+public class NewmanZiff {
+    private static final byte OPEN = 1;
+    private static final byte TOP = 2;
+    private static final byte BOTTOM = 4;
+
+    /**
+     * Number of open-site counts k a sweep buffers before adding them to the shared sums
+     */
+    private static final int BLOCK = 4096;
+
+    /**
+     * Used to set an n-by-n percolation grid
+     */
+    private final int n;
+
+    /**
+     * Number of sites, n*n
+     */
+    private final int sites;
+
+    private final int trials;
+
+    /**
+     * Q(k) and S(k), for k = 0..n*n
+     */
+    private final double[] percolating;
+    private final double[] largest;
+
+    /**
+     * Runs {@code trials} sweeps using every available core
+     * @param n to set an n-by-n percolation grid
+     * @param trials number of sweeps
+     * @param seed makes the sweeps reproducible
+     */
+    public NewmanZiff(int n, int trials, long seed) {
+        this(n, trials, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Runs {@code trials} sweeps
+     * @param n to set an n-by-n percolation grid
+     * @param trials number of sweeps
+     * @param seed makes the sweeps reproducible, whatever the number of threads
+     * @param threads parallelism of the fork-join pool
+     */
+    public NewmanZiff(int n, int trials, long seed, int threads) {
+        if (n < 1 || n > 46340 || trials < 1 || threads < 1)
+            throw new IllegalArgumentException();
+
+        this.n = n;
+        this.trials = trials;
+        sites = n * n;
+
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[trials];
+        for (int i = 0; i < trials; i++) {
+            streams[i] = root.split();
+        }
+
+        // one chunk of trials per thread, each reusing the arrays of one sweep
+        int chunks = Math.min(trials, threads);
+        int[] percolationStep = new int[trials];
+        long[] largestSum = new long[sites + 1];
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new SweepTask(streams, chunks, percolationStep, largestSum, 0, chunks));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Q(k): the trials that first percolated at k or before
+        percolating = new double[sites + 1];
+        for (int step : percolationStep) percolating[step]++;
+        double percolated = 0;
+        for (int k = 0; k <= sites; k++) {
+            percolated += percolating[k];
+            percolating[k] = percolated / trials;
+        }
+
+        largest = new double[sites + 1];
+        for (int k = 0; k <= sites; k++) largest[k] = (double) largestSum[k] / trials / sites;
+    }
+
+    /**
+     * Opens every site in a random order
+     * @param largestSum incremented by the largest cluster at every number of open sites
+     * @return the number of open sites that made the system percolate
+     */
+    private int sweep(SplittableRandom random, Sweep sweep, long[] largestSum) {
+        int[] order = sweep.order;
+        for (int i = 0; i < sites; i++) order[i] = i + 1;
+        for (int i = sites - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int site = order[j];
+            order[j] = order[i];
+            order[i] = site;
+        }
+
+        WeightedQuickUnion uf = sweep.uf;
+        byte[] state = sweep.state;
+        uf.reset();
+        Arrays.fill(state, (byte) 0);
+        int[] buffer = sweep.largest;
+        int percolationStep = 0;
+        int biggest = 0;
+
+        for (int k = 1; k <= sites; k++) {
+            int idx = order[k - 1];
+            byte s = OPEN;
+            if (idx <= n)         s |= TOP;
+            if (idx > sites - n)  s |= BOTTOM;
+            state[idx] = s;
+
+            if (idx > n)              neighborUnion(uf, state, idx - n, idx); // if has up neighbor
+            if (idx <= sites - n)     neighborUnion(uf, state, idx + n, idx); // if has down neighbor
+            if ((idx - 1) % n != 0)   neighborUnion(uf, state, idx - 1, idx); // if has left neighbor
+            if (idx % n != 0)         neighborUnion(uf, state, idx + 1, idx); // if has right neighbor
+
+            int root = uf.find(idx);
+            biggest = Math.max(biggest, uf.size(root));
+            buffer[k % BLOCK] = biggest;
+            if (k % BLOCK == BLOCK - 1 || k == sites) flush(buffer, k - k % BLOCK, k, largestSum);
+            if (percolationStep == 0 && (state[root] & (TOP | BOTTOM)) == (TOP | BOTTOM)) {
+                percolationStep = k;
+            }
+        }
+        return percolationStep;
+    }
+
+    /**
+     * Adds the buffered largest clusters of k = from..to to the sums shared by all the sweeps
+     */
+    private static void flush(int[] buffer, int from, int to, long[] largestSum) {
+        synchronized (largestSum) {
+            for (int k = Math.max(from, 1); k <= to; k++) largestSum[k] += buffer[k - from];
+        }
+    }
+
+    private static void neighborUnion(WeightedQuickUnion uf, byte[] state, int neighborIdx, int idx) {
+        if ((state[neighborIdx] & OPEN) == 0) return;
+
+        int rootP = uf.find(neighborIdx);
+        int rootQ = uf.find(idx);
+        if (rootP == rootQ) return;
+
+        byte rows = (byte) ((state[rootP] | state[rootQ]) & (TOP | BOTTOM));
+        uf.union(rootP, rootQ);
+        state[uf.find(rootP)] |= rows;
+    }
+
+    /**
+     * Arrays of one sweep, reused by all the sweeps of a chunk
+     */
+    private class Sweep {
+        private final int[] order = new int[sites];
+
+        // same scheme as SingleUnionPercolation, index 0 unused
+        private final WeightedQuickUnion uf = new WeightedQuickUnion(sites + 1);
+        private final byte[] state = new byte[sites + 1];
+
+        // largest cluster at the last (up to) BLOCK numbers of open sites
+        private final int[] largest = new int[BLOCK];
+    }
+
+    /**
+     * Splits the chunks until each task sweeps the trials of a single one
+     */
+    @SuppressWarnings("serial")
+    private class SweepTask extends RecursiveAction {
+        private final SplittableRandom[] streams;
+        private final int chunks;
+        private final int[] percolationStep;
+        private final long[] largestSum;
+        private final int lo;
+        private final int hi;
+
+        SweepTask(SplittableRandom[] streams, int chunks, int[] percolationStep, long[] largestSum, int lo, int hi) {
+            this.streams = streams;
+            this.chunks = chunks;
+            this.percolationStep = percolationStep;
+            this.largestSum = largestSum;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                Sweep sweep = new Sweep();
+                for (int t = lo; t < streams.length; t += chunks) {
+                    percolationStep[t] = sweep(streams[t], sweep, largestSum);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new SweepTask(streams, chunks, percolationStep, largestSum, lo, mid),
+                      new SweepTask(streams, chunks, percolationStep, largestSum, mid, hi));
+        }
+    }
+
+    /**
+     * Averages {@code q(k)} over k ~ Binomial(n*n, p).
+     * The weights are built outwards from the mode with the ratio of consecutive terms,
+     * which never overflows, and stop once they are negligible.
+     */
+    private double convolve(double[] q, double p) {
+        if (!(p >= 0 && p <= 1)) throw new IllegalArgumentException("p must be in [0, 1]");
+        if (p == 0) return q[0];
+        if (p == 1) return q[sites];
+
+        int mode = (int) Math.min(sites, Math.floor(p * (sites + 1)));
+        double odds = p / (1 - p);
+        double sum = q[mode];
+        double norm = 1;
+
+        double weight = 1;
+        for (int k = mode + 1; k <= sites; k++) {
+            weight *= (double) (sites - k + 1) / k * odds;
+            if (weight < 1e-16) break;
+            sum += weight * q[k];
+            norm += weight;
+        }
+        weight = 1;
+        for (int k = mode - 1; k >= 0; k--) {
+            weight *= (double) (k + 1) / (sites - k) / odds;
+            if (weight < 1e-16) break;
+            sum += weight * q[k];
+            norm += weight;
+        }
+        return sum / norm;
+    }
+
+    /**
+     * @param p probability that a site is open
+     * @return estimated probability that the system percolates
+     */
+    public double percolationProbability(double p) {
+        return convolve(percolating, p);
+    }
+
+    /**
+     * @param p probability that a site is open
+     * @return estimated mean size of the largest cluster, as a fraction of the sites
+     */
+    public double largestClusterFraction(double p) {
+        return convolve(largest, p);
+    }
+
+    /**
+     * @param k number of open sites, from 0 to n*n
+     * @return fraction of the trials that percolate with exactly k open sites
+     */
+    public double percolationProbabilityAt(int k) {
+        return percolating[k];
+    }
+
+    /**
+     * @return number of trials
+     */
+    public int trials() {
+        return trials;
+    }
+
+    /**
+     * Usage: NewmanZiff n trials [seed] [points]
+     * Prints the CSV curve p, P(p), largest cluster fraction.
+     */
+    public static void main(String[] args) {
+        int n = Integer.parseInt(args[0]);
+        int trials = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        int points = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        NewmanZiff curve = new NewmanZiff(n, trials, seed);
+        System.out.println("p,percolation,largest");
+        for (int i = 0; i <= points; i++) {
+            double p = (double) i / points;
+            System.out.println(p + "," + curve.percolationProbability(p) + "," + curve.largestClusterFraction(p));
+        }
+    }
+}
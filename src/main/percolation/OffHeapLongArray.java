@@ -0,0 +1,127 @@
+package main.percolation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+    long-indexed array of longs outside the Java heap.
+
+    Java arrays and buffers are int-indexed, so the array is split in chunks
+    of 2^27 longs (1 GiB), each one a direct or memory-mapped ByteBuffer:
+
+        i  ->  chunks[i >>> 27].get(i & (2^27 - 1))
+
+    Every element starts at 0 (fresh direct memory and newly grown files are zeroed).
+*/
+
+public class OffHeapLongArray implements Closeable {
+    private static final int CHUNK_SHIFT = 27;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final long length;
+    private final LongBuffer[] chunks;
+
+    /**
+     * Backing file channel, {@code null} for direct memory
+     */
+    private final FileChannel channel;
+
+    /**
+     * Allocates the array in direct memory
+     * @param length number of elements
+     */
+    public OffHeapLongArray(long length) {
+        checkLength(length);
+        this.length = length;
+        channel = null;
+        chunks = new LongBuffer[chunkCount(length)];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = ByteBuffer.allocateDirect(chunkBytes(c))
+                                  .order(ByteOrder.nativeOrder())
+                                  .asLongBuffer();
+        }
+    }
+
+    /**
+     * Maps the array onto a file, which is created or grown as needed.
+     * The operating system pages it in and out, so it can exceed the physical memory.
+     * @param length number of elements
+     * @param file the backing file, which must not exist or be empty so every element starts at 0
+     * @throws FileAlreadyExistsException if the file is not empty, e.g. left over by an earlier run
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public OffHeapLongArray(long length, Path file) throws IOException {
+        checkLength(length);
+        this.length = length;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() != 0) {
+            channel.close();
+            throw new FileAlreadyExistsException(file.toString(), null, "not empty");
+        }
+        chunks = new LongBuffer[chunkCount(length)];
+        for (int c = 0; c < chunks.length; c++) {
+            long position = (long) c * CHUNK_SIZE * Long.BYTES;
+            chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, position, chunkBytes(c))
+                               .order(ByteOrder.nativeOrder())
+                               .asLongBuffer();
+        }
+    }
+
+    private static void checkLength(long length) {
+        if (length < 1 || (length - 1) >>> CHUNK_SHIFT >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException("invalid length " + length);
+    }
+
+    private static int chunkCount(long length) {
+        return (int) (((length - 1) >>> CHUNK_SHIFT) + 1);
+    }
+
+    /**
+     * @param c chunk index
+     * @return the size in bytes of the chunk, only the last one can be partial
+     */
+    private int chunkBytes(int c) {
+        long elements = Math.min(CHUNK_SIZE, length - ((long) c << CHUNK_SHIFT));
+        return (int) elements * Long.BYTES;
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public long get(long i) {
+        return chunks[(int) (i >>> CHUNK_SHIFT)].get((int) (i & CHUNK_MASK));
+    }
+
+    public void set(long i, long value) {
+        chunks[(int) (i >>> CHUNK_SHIFT)].put((int) (i & CHUNK_MASK), value);
+    }
+
+    /**
+     * Sets every element back to 0
+     */
+    public void clear() {
+        long[] zeros = new long[(int) Math.min(length, 8192)];
+        for (LongBuffer chunk : chunks) {
+            LongBuffer view = chunk.duplicate();
+            view.clear();
+            while (view.hasRemaining()) view.put(zeros, 0, Math.min(zeros.length, view.remaining()));
+        }
+    }
+
+    /**
+     * Closes the backing file, if any. The mapped memory itself is released by the garbage collector.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+}
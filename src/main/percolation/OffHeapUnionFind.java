@@ -0,0 +1,107 @@
+package main.percolation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/*
+    WeightedQuickUnion indexed by long, with a single off-heap array.
+
+    stored value v:
+        v >  0   parent is v - 1
+        v <= 0   root of a set of 1 - v elements
+
+    so the zeroed memory already is the initial state (every element alone),
+    and nothing has to be written before the first union.
+*/
+
+public class OffHeapUnionFind implements Closeable {
+    private final OffHeapLongArray parent;
+
+    /**
+     * @param arraySize number of elements, kept in direct memory
+     */
+    public OffHeapUnionFind(long arraySize) {
+        parent = new OffHeapLongArray(arraySize);
+    }
+
+    /**
+     * @param arraySize number of elements
+     * @param file memory-mapped file holding the parents
+     * @throws IOException if the file can't be mapped
+     */
+    public OffHeapUnionFind(long arraySize, Path file) throws IOException {
+        parent = new OffHeapLongArray(arraySize, file);
+    }
+
+    /**
+     * Puts every element back in its own set: zeroes the array
+     */
+    public void reset() {
+        parent.clear();
+    }
+
+    /**
+     * Returns the canonical element of the set containing element {@code i}.
+     *
+     * @param  i an element
+     * @return the canonical element of the set containing {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < n}
+     */
+    public long find(long i) {
+        validate(i);
+        long p;
+        while ((p = parent.get(i)) > 0) {
+            long grandparent = parent.get(p - 1);
+            if (grandparent <= 0) return p - 1;
+            parent.set(i, grandparent);       // path halving
+            i = grandparent - 1;
+        }
+        return i;
+    }
+
+    /**
+     * Check if p and q have same root
+     */
+    public boolean connected(long p, long q) {
+        return find(p) == find(q);
+    }
+
+    /**
+     * Merges the set containing element {@code p} with the 
+     * the set containing element {@code q}.
+     *
+     * @param  p one element
+     * @param  q the other element
+     * @throws IllegalArgumentException unless
+     *         both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public void union(long p, long q) {
+        long rootP = find(p);
+        long rootQ = find(q);
+        if (rootP == rootQ) return;
+
+        long sizeP = 1 - parent.get(rootP);
+        long sizeQ = 1 - parent.get(rootQ);
+        if (sizeP < sizeQ) {
+            parent.set(rootP, rootQ + 1);
+            parent.set(rootQ, 1 - (sizeP + sizeQ));
+        }
+        else {
+            parent.set(rootQ, rootP + 1);
+            parent.set(rootP, 1 - (sizeP + sizeQ));
+        }
+    }
+
+    private void validate(long p) {
+        long n = parent.length();
+        if (p < 0 || p >= n) {
+            throw new IllegalArgumentException("index " + p + " is not between 0 and " + (n-1));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parent.close();
+    }
+}
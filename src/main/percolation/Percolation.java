@@ -1,5 +1,10 @@
 package main.percolation;
 
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
 /*
     N = 3;
             top
@@ -13,7 +18,7 @@ package main.percolation;
            bottom
 */
 
-public class Percolation {
+public class Percolation implements PercolationModel {
     /**
      * Used to set an n-by-n percolation grid
     */
@@ -42,7 +47,7 @@ public class Percolation {
     /**
      * Runs the union-find algorithm in order to simulate a percolation system 
      */
-    private final WeightedQuickUnion percolation;
+    private final UnionFind percolation;
 
     /**
      * Keeps track of the sites that are open.
@@ -52,31 +57,91 @@ public class Percolation {
      * Keeps track of the sites that are full.
      * A site is full if its root is equal to 0.
      * 
-     * This {@code WeightedQuickUnion} object prevents the virtualBottom from filling,
+     * This second union-find prevents the virtualBottom from filling,
      * and hence causing a bug.
      */
-    private final WeightedQuickUnion full;
+    private final UnionFind full;
+
+    /**
+     * Told about every site that becomes full, {@code null} if nobody listens.
+     */
+    private IntConsumer fullSiteListener;
+
+    /**
+     * Sites already reported to the listener, i.e. the full sites.
+     * Only allocated once a listener is set.
+     */
+    private boolean[] filled;
+
+    /**
+     * Pending sites of the flood that reports the newly full sites
+     */
+    private int[] floodStack;
+
+    private static final UnionFindMetrics METRICS = UnionFindMetrics.register("Percolation");
+
+    /**
+     * Only allocated on RollbackUnionFind, to undo the opens:
+     * the k-th opened site, and the union-find checkpoints and fill count just before it was opened
+     */
+    private final int[] openedSites;
+    private final int[] percolationMarks;
+    private final int[] fullMarks;
+    private final int[] fillMarks;
+
+    /**
+     * Filled sites in the order they were filled, so a rollback can unfill them.
+     * Only allocated on RollbackUnionFind once a listener is set.
+     */
+    private int[] fillOrder;
+    private int fillTop;
 
     /** 
      * Creates n-by-n grid, with all sites initially blocked
      * @param n to set an n-by-n percolation grid
     */
     public Percolation(int n) {
-        if (n < 1)
+        this(n, WeightedQuickUnion::new);
+    }
+
+    /**
+     * Creates n-by-n grid, with all sites initially blocked, on another union-find algorithm
+     * @param n to set an n-by-n percolation grid
+     * @param unionFind creates a union-find over n*n + 2 elements, e.g. {@code UnionFindAlgorithm.REM.factory()}
+     */
+    public Percolation(int n, IntFunction<? extends UnionFind> unionFind) {
+        // n*n + 2 must fit in an int, use LargePercolation beyond that
+        if (n < 1 || n > 46340)
             throw new IllegalArgumentException();
 
         countOpenSites = 0;
         this.n = n;
         length = n*n + 2;
             
-        percolation = new WeightedQuickUnion(length);
-        full = new WeightedQuickUnion(length);
+        percolation = unionFind.apply(length);
+        full = unionFind.apply(length);
         virtualTop = 0;
         virtualBottom = length - 1;
 
         openSites = new boolean[length];
 
-        // connect the virtual top to first row's sites and virtual bottom to the last row
+        if (percolation instanceof RollbackUnionFind && full instanceof RollbackUnionFind) {
+            openedSites = new int[length - 2];
+            percolationMarks = new int[length - 2];
+            fullMarks = new int[length - 2];
+            fillMarks = new int[length - 2];
+        }
+        else {
+            openedSites = percolationMarks = fullMarks = fillMarks = null;
+        }
+
+        connectVirtualSites();
+    }
+
+    /**
+     * Connects the virtual top to first row's sites and virtual bottom to the last row
+     */
+    private void connectVirtualSites() {
         for (int i = 1; i <= n; i++) {
             full.union(virtualTop, i);
             percolation.union(virtualTop, i);
@@ -84,21 +149,217 @@ public class Percolation {
         }
     }
 
+    /**
+     * Blocks every site again, reusing the arrays instead of allocating a new system.
+     * Costs a fill of the arrays plus the 3n unions of the virtual sites.
+     */
+    @Override
+    public void reset() {
+        percolation.reset();
+        full.reset();
+        Arrays.fill(openSites, false);
+        countOpenSites = 0;
+        connectVirtualSites();
+        if (filled != null) Arrays.fill(filled, false);
+        fillTop = 0;
+    }
+
     /** 
      * Opens the site if it is not open already
      * @param idx the index of the site to open
     */
     public void open(int idx) {
         checkArgument(idx);
-        if (!openSites[idx]) {
-            openSites[idx] = true;
-            countOpenSites++;
+        if (!openSites[idx]) openBlocked(idx);
+    }
+
+    /**
+     * Opens a valid, blocked site and connects it to its open neighbors
+     * @param idx the index of the site to open
+     */
+    private void openBlocked(int idx) {
+        if (openedSites != null) {
+            openedSites[countOpenSites] = idx;
+            percolationMarks[countOpenSites] = ((RollbackUnionFind) percolation).checkpoint();
+            fullMarks[countOpenSites] = ((RollbackUnionFind) full).checkpoint();
+            fillMarks[countOpenSites] = fillTop;
+        }
+        openSites[idx] = true;
+        countOpenSites++;
 
-            if (idx - n >= 1)        neighborUnion(idx-n, idx); // if has up neighbor 
-            if (idx + n <= length-2) neighborUnion(idx+n, idx); // if has down neighbor
-            if ((idx - 1) % n != 0)  neighborUnion(idx-1, idx); // if has left neighbor
-            if (idx % n != 0)        neighborUnion(idx+1, idx); // if has right neighbor
+        if (idx - n >= 1)        neighborUnion(idx-n, idx); // if has up neighbor 
+        if (idx + n <= length-2) neighborUnion(idx+n, idx); // if has down neighbor
+        if ((idx - 1) % n != 0)  neighborUnion(idx-1, idx); // if has left neighbor
+        if (idx % n != 0)        neighborUnion(idx+1, idx); // if has right neighbor
+        if (UnionFindMetrics.ENABLED) METRICS.opened(openNeighbors(idx));
+
+        if (fullSiteListener != null && full.connected(idx, virtualTop)) flood(idx);
+    }
+
+    /**
+     * Only for the metrics: the open neighbors of a site, each joined to it in both union-finds
+     */
+    private int openNeighbors(int idx) {
+        int count = 0;
+        if (idx - n >= 1 && openSites[idx-n])        count++;
+        if (idx + n <= length-2 && openSites[idx+n]) count++;
+        if ((idx - 1) % n != 0 && openSites[idx-1])  count++;
+        if (idx % n != 0 && openSites[idx+1])        count++;
+        return count;
+    }
+
+    /**
+     * Same as the {@code PercolationModel} default, but each site is validated once
+     * and the percolation test is skipped once the system percolates.
+     */
+    @Override
+    public int openAll(int[] sites, int from, int to, boolean stopAtPercolation) {
+        Objects.checkFromToIndex(from, to, sites.length);
+        boolean percolated = percolates();
+        int first = -1;
+        for (int i = from; i < to; i++) {
+            int idx = sites[i];
+            checkArgument(idx);
+            if (openSites[idx]) continue;
+
+            openBlocked(idx);
+            if (!percolated && percolates()) {
+                percolated = true;
+                first = i;
+                if (stopAtPercolation) break;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Reports the sites that became full because {@code idx} was opened.
+     *
+     * Every open neighbor of a full site is full, so a flood from {@code idx} through the
+     * open sites that are not filled yet reaches exactly the newly full ones.
+     * Each site is filled once, so all the floods of a session cost O(n^2) together.
+     * @param idx a full site that has just been opened
+     */
+    private void flood(int idx) {
+        int top = 0;
+        filled[idx] = true;
+        floodStack[top++] = idx;
+        if (fillOrder != null) fillOrder[fillTop++] = idx;
+
+        while (top > 0) {
+            int site = floodStack[--top];
+            fullSiteListener.accept(site);
+
+            if (site - n >= 1)        top = floodPush(site-n, top); // up
+            if (site + n <= length-2) top = floodPush(site+n, top); // down
+            if ((site - 1) % n != 0)  top = floodPush(site-1, top); // left
+            if (site % n != 0)        top = floodPush(site+1, top); // right
+        }
+    }
+
+    private int floodPush(int neighborIdx, int top) {
+        if (openSites[neighborIdx] && !filled[neighborIdx]) {
+            filled[neighborIdx] = true;
+            floodStack[top++] = neighborIdx;
+            if (fillOrder != null) fillOrder[fillTop++] = neighborIdx;
+        }
+        return top;
+    }
+
+    /**
+     * Registers a callback told about each site when it becomes full, so a view can repaint
+     * only what changed. The sites that are full already are reported right away.
+     * @param listener receives the index of every newly full site, {@code null} to stop listening
+     */
+    public void setFullSiteListener(IntConsumer listener) {
+        fullSiteListener = listener;
+        fillTop = 0;
+        if (listener == null) {
+            filled = null;
+            floodStack = null;
+            fillOrder = null;
+            return;
+        }
+
+        filled = new boolean[length];
+        floodStack = new int[length];
+        if (openedSites != null) {
+            fillOrder = new int[length];
+            Arrays.fill(fillMarks, 0, countOpenSites, 0);   // the marks of the previous listener are stale
+        }
+        for (int idx = 1; idx <= length - 2; idx++) {
+            if (!filled[idx] && isFull(idx)) flood(idx);
+        }
+    }
+
+    /**
+     * @return {@code true} if the system runs on RollbackUnionFind, so it can roll back
+     */
+    public boolean canRollback() {
+        return openedSites != null;
+    }
+
+    /**
+     * Remembers the current state. Opens are undone newest first, so the state is just
+     * the number of open sites.
+     * @return the value to give to {@code rollback} to come back here
+     * @throws IllegalStateException unless the system was created with {@code RollbackUnionFind::new}
+     */
+    public int checkpoint() {
+        if (openedSites == null)
+            throw new IllegalStateException("rollback needs new Percolation(n, RollbackUnionFind::new)");
+        return countOpenSites;
+    }
+
+    /**
+     * Blocks again every site opened since the checkpoint, in O(k log n) for k opens
+     * @param checkpoint a value returned by {@code checkpoint()} since the last reset
+     * @see #rollback(int, IntConsumer)
+     */
+    public void rollback(int checkpoint) {
+        rollback(checkpoint, null);
+    }
+
+    /**
+     * Blocks again every site opened since the checkpoint, in O(k log n) for k opens.
+     * The full sites listener is not told anything, {@code changed} is told instead.
+     * @param checkpoint a value returned by {@code checkpoint()} since the last reset
+     * @param changed told about every site that was blocked again and, while a full site listener
+     *                is set, every site no longer full; called once the rollback is done, a site
+     *                may be told twice; may be {@code null}
+     * @throws IllegalStateException unless the system was created with {@code RollbackUnionFind::new}
+     */
+    public void rollback(int checkpoint, IntConsumer changed) {
+        checkpoint();
+        if (checkpoint < 0 || checkpoint > countOpenSites)
+            throw new IllegalArgumentException("checkpoint " + checkpoint + " is not between 0 and " + countOpenSites);
+        if (checkpoint == countOpenSites) return;
+
+        ((RollbackUnionFind) percolation).rollback(percolationMarks[checkpoint]);
+        ((RollbackUnionFind) full).rollback(fullMarks[checkpoint]);
+        for (int k = checkpoint; k < countOpenSites; k++) openSites[openedSites[k]] = false;
+        int opened = countOpenSites;
+        countOpenSites = checkpoint;
+
+        if (fillOrder != null) {
+            // a site filled since the mark may still be full, e.g. one filled when the listener
+            // was set, or one opened before the checkpoint; those stay filled
+            int kept = fillMarks[checkpoint];
+            for (int i = fillMarks[checkpoint]; i < fillTop; i++) {
+                int site = fillOrder[i];
+                if (openSites[site] && full.connected(site, virtualTop)) {
+                    fillOrder[kept++] = site;
+                }
+                else {
+                    filled[site] = false;
+                    if (changed != null) changed.accept(site);
+                }
+            }
+            fillTop = kept;
+        }
 
+        if (changed != null) {
+            for (int k = checkpoint; k < opened; k++) changed.accept(openedSites[k]);
         }
     }
 
@@ -108,7 +369,7 @@ public class Percolation {
      * @param idx the index to which the neighborIdx is adjacent
     */
     private void neighborUnion(int neighborIdx, int idx) {
-        if (isOpen(neighborIdx)) {
+        if (openSites[neighborIdx]) {
             percolation.union(neighborIdx, idx);
             full.union(neighborIdx, idx);
         }
@@ -152,7 +413,7 @@ public class Percolation {
      * @param idx check if the index represents a position in the grid
      */
     private void checkArgument(int idx) {
-        if (idx > length || idx < 1)
+        if (idx > length - 2 || idx < 1)
             throw new IllegalArgumentException();
     }
 
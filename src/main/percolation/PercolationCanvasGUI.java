@@ -0,0 +1,380 @@
+package main.percolation;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+import main.transitionframes.PercolatedFrame;
+
+/*
+    Visualization for big grids: one component paints the whole system instead of one JButton per site.
+
+    image:  N-by-N BufferedImage, one pixel per site, written through its int[] buffer
+    view:   the image scaled by `scale` pixels per site and moved by `originX`, `originY`;
+            only the visible part of the image is drawn
+    update: only the cells that changed color are repainted
+
+    mouse:     click opens a site, drag pans, wheel zooms around the cursor
+    keyboard:  arrows move the selection, enter opens it, +/- zoom, ctrl+z undoes the last open
+*/
+
+public class PercolationCanvasGUI {
+    /**
+     * Biggest grid offered by the GridSizeFrame
+     */
+    public static final int MAX_N = 2000;
+
+    /**
+     * Side of the visible area, in pixels
+     */
+    private static final int VIEW_SIZE = 800;
+
+    /**
+     * Most pixels per site when zooming in
+     */
+    private static final double MAX_SCALE = 64;
+
+    /**
+     * The grid frame.
+     */
+    private final JFrame grid;
+
+    /**
+     * Object that runs the percolation system.
+     */
+    private final Percolation percolation;
+
+    /**
+     * Used to set an N-by-N grid
+     */
+    private final int N;
+
+    /**
+     * Has the system percolated yet?
+     */
+    private boolean percolated = false;
+
+    /**
+     * Color of every site, one pixel each, row by row
+     */
+    private final BufferedImage image;
+    private final int[] pixels;
+
+    private final Canvas canvas;
+
+    private final int black = Color.BLACK.getRGB();
+    private final Color blue = new Color(87, 145, 179);
+    private final Color brown = new Color(120, 75, 60);
+    private final Color gray = new Color(199, 249, 225);
+
+    /**
+     * The canvas frame, a visualization of the percolation system.
+     * @param N to set an N-by-N grid
+     */
+    public PercolationCanvasGUI(final int N) {
+        this.N = N;
+        percolation = new Percolation(N, RollbackUnionFind::new);
+
+        image = new BufferedImage(N, N, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        Arrays.fill(pixels, black);
+
+        canvas = new Canvas();
+        percolation.setFullSiteListener(idx -> canvas.paintSite(idx, blue));
+
+        grid = new JFrame();
+        grid.add(canvas);
+        grid.setTitle("Percolation");
+        grid.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        grid.pack();
+        grid.setLocationRelativeTo(null);
+        grid.setVisible(true);
+        canvas.requestFocusInWindow();
+    }
+
+    /**
+     * @return {@code true} if the system has percolated
+     */
+    public boolean getPercolated() {
+        return percolated;
+    }
+
+    /**
+     * @param isPercolated
+     * , to set the new binary status of the system
+     */
+    public void setPercolated(boolean isPercolated) {
+        percolated = isPercolated;
+    }
+
+    private void open(int idx) {
+        if (percolation.isOpen(idx)) return;
+
+        canvas.paintSite(idx, brown);
+        percolation.open(idx); // turns the newly full sites blue
+        canvas.flush();
+
+        if (!getPercolated() && percolation.percolates()) {
+            setPercolated(true);
+            PercolatedFrame P = new PercolatedFrame(N, grid);
+            P.setVisible(true);
+            P.setLocationRelativeTo(grid);
+        }
+    }
+
+    /**
+     * Blocks again the site opened last and repaints the sites that changed
+     */
+    private void undo() {
+        if (percolation.numberOfOpenSites() == 0) return;
+
+        percolation.rollback(percolation.numberOfOpenSites() - 1, idx ->
+                canvas.paintSite(idx, !percolation.isOpen(idx) ? Color.BLACK : percolation.isFull(idx) ? blue : brown));
+        canvas.flush();
+        setPercolated(percolation.percolates());
+    }
+
+    @SuppressWarnings("serial")
+    private class Canvas extends JComponent {
+        /**
+         * Pixels per site
+         */
+        private double scale;
+
+        /**
+         * Position of the top left corner of the grid in the component
+         */
+        private double originX;
+        private double originY;
+
+        /**
+         * Site selected by the keyboard
+         */
+        private int selected = 1;
+
+        /**
+         * Rows and columns of the sites painted since the last flush
+         */
+        private int dirtyRow1 = Integer.MAX_VALUE, dirtyRow2 = -1;
+        private int dirtyCol1 = Integer.MAX_VALUE, dirtyCol2 = -1;
+
+        /**
+         * Where the current drag started, to tell a click from a pan
+         */
+        private Point dragStart;
+        private Point lastDrag;
+
+        Canvas() {
+            scale = (double) VIEW_SIZE / N;
+            setPreferredSize(new Dimension(VIEW_SIZE, VIEW_SIZE));
+            setFocusable(true);
+
+            MouseAdapter mouse = new mouseActionListener();
+            addMouseListener(mouse);
+            addMouseMotionListener(mouse);
+            addMouseWheelListener(mouse);
+            addKeyListener(new keyActionListener());
+        }
+
+        /**
+         * @return the site under the point, 0 if it is outside the grid
+         */
+        private int siteAt(Point p) {
+            int col = (int) Math.floor((p.x - originX) / scale);
+            int row = (int) Math.floor((p.y - originY) / scale);
+            if (row < 0 || row >= N || col < 0 || col >= N) return 0;
+            return row * N + col + 1;
+        }
+
+        /**
+         * Changes the color of a site, repainted at the next flush
+         */
+        void paintSite(int idx, Color color) {
+            pixels[idx - 1] = color.getRGB();
+            int row = (idx - 1) / N;
+            int col = (idx - 1) % N;
+            dirtyRow1 = Math.min(dirtyRow1, row);
+            dirtyRow2 = Math.max(dirtyRow2, row);
+            dirtyCol1 = Math.min(dirtyCol1, col);
+            dirtyCol2 = Math.max(dirtyCol2, col);
+        }
+
+        /**
+         * Repaints the rectangle holding every site painted since the last flush
+         */
+        void flush() {
+            if (dirtyRow2 < 0) return;
+            repaintCells(dirtyRow1, dirtyCol1, dirtyRow2, dirtyCol2);
+            dirtyRow1 = dirtyCol1 = Integer.MAX_VALUE;
+            dirtyRow2 = dirtyCol2 = -1;
+        }
+
+        private void repaintSite(int idx) {
+            int row = (idx - 1) / N;
+            int col = (idx - 1) % N;
+            repaintCells(row, col, row, col);
+        }
+
+        private void repaintCells(int row1, int col1, int row2, int col2) {
+            int x = (int) Math.floor(originX + col1 * scale);
+            int y = (int) Math.floor(originY + row1 * scale);
+            int width = (int) Math.ceil((col2 - col1 + 1) * scale);
+            int height = (int) Math.ceil((row2 - row1 + 1) * scale);
+            repaint(x - 2, y - 2, width + 4, height + 4); // room for the selection border
+        }
+
+        /**
+         * Zooms keeping the point (x, y) of the component still
+         */
+        private void zoom(double factor, double x, double y) {
+            double min = Math.min(1, (double) VIEW_SIZE / N);
+            double newScale = Math.max(min, Math.min(MAX_SCALE, scale * factor));
+            originX = x - (x - originX) * newScale / scale;
+            originY = y - (y - originY) * newScale / scale;
+            scale = newScale;
+            repaint();
+        }
+
+        /**
+         * Pans just enough to show the selected site
+         */
+        private void reveal(int idx) {
+            int row = (idx - 1) / N;
+            int col = (idx - 1) % N;
+            double x = originX + col * scale;
+            double y = originY + row * scale;
+            if (x < 0)                           originX -= x;
+            if (x + scale > getWidth())          originX -= x + scale - getWidth();
+            if (y < 0)                           originY -= y;
+            if (y + scale > getHeight())         originY -= y + scale - getHeight();
+            repaint();
+        }
+
+        private void select(int idx) {
+            repaintSite(selected);
+            selected = idx;
+            repaintSite(idx);
+            reveal(idx);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setColor(getParent().getBackground());
+            g2.fillRect(0, 0, getWidth(), getHeight());
+
+            // visible part of the image, clipped to the repainted area
+            Rectangle clip = g2.getClipBounds();
+            if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+            int col1 = Math.max(0, (int) Math.floor((clip.x - originX) / scale));
+            int row1 = Math.max(0, (int) Math.floor((clip.y - originY) / scale));
+            int col2 = Math.min(N, (int) Math.ceil((clip.x + clip.width - originX) / scale));
+            int row2 = Math.min(N, (int) Math.ceil((clip.y + clip.height - originY) / scale));
+
+            if (col1 < col2 && row1 < row2) {
+                g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+                g2.drawImage(image,
+                        (int) Math.floor(originX + col1 * scale), (int) Math.floor(originY + row1 * scale),
+                        (int) Math.floor(originX + col2 * scale), (int) Math.floor(originY + row2 * scale),
+                        col1, row1, col2, row2, null);
+            }
+
+            int row = (selected - 1) / N;
+            int col = (selected - 1) % N;
+            g2.setColor(gray);
+            g2.setStroke(new BasicStroke(2));
+            g2.drawRect((int) Math.floor(originX + col * scale), (int) Math.floor(originY + row * scale),
+                        Math.max(2, (int) Math.ceil(scale)), Math.max(2, (int) Math.ceil(scale)));
+        }
+    }
+
+    private class mouseActionListener extends MouseAdapter {
+
+        @Override
+        public void mousePressed(MouseEvent e) {
+            canvas.requestFocusInWindow();
+            canvas.dragStart = e.getPoint();
+            canvas.lastDrag = e.getPoint();
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent e) {
+            canvas.originX += e.getX() - canvas.lastDrag.x;
+            canvas.originY += e.getY() - canvas.lastDrag.y;
+            canvas.lastDrag = e.getPoint();
+            canvas.repaint();
+        }
+
+        @Override
+        public void mouseReleased(MouseEvent e) {
+            // a click is a press and a release in (almost) the same place
+            if (SwingUtilities.isLeftMouseButton(e) && e.getPoint().distance(canvas.dragStart) < 3) {
+                int idx = canvas.siteAt(e.getPoint());
+                if (idx != 0) {
+                    canvas.select(idx);
+                    open(idx);
+                }
+            }
+        }
+
+        @Override
+        public void mouseWheelMoved(MouseWheelEvent e) {
+            canvas.zoom(Math.pow(1.2, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+        }
+    }
+
+    private class keyActionListener extends KeyAdapter {
+
+        @Override
+        public void keyPressed(KeyEvent e) {
+            int idx = canvas.selected;
+
+            switch (e.getKeyCode()) {
+            case KeyEvent.VK_ENTER:
+                open(idx);
+                break;
+            case KeyEvent.VK_UP:
+                if (idx - N >= 1) canvas.select(idx - N);
+                break;
+            case KeyEvent.VK_DOWN:
+                if (idx + N <= N*N) canvas.select(idx + N);
+                break;
+            case KeyEvent.VK_LEFT:
+                if (idx - 1 >= 1) canvas.select(idx - 1);
+                break;
+            case KeyEvent.VK_RIGHT:
+                if (idx + 1 <= N*N) canvas.select(idx + 1);
+                break;
+            case KeyEvent.VK_PLUS:
+            case KeyEvent.VK_EQUALS:
+                canvas.zoom(1.5, canvas.getWidth() / 2.0, canvas.getHeight() / 2.0);
+                break;
+            case KeyEvent.VK_MINUS:
+                canvas.zoom(1 / 1.5, canvas.getWidth() / 2.0, canvas.getHeight() / 2.0);
+                break;
+            case KeyEvent.VK_Z:
+                if (e.isControlDown()) undo();
+                break;
+            default:
+                break;
+            }
+        }
+    }
+}
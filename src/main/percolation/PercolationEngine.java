@@ -0,0 +1,47 @@
+package main.percolation;
+
+import java.util.function.IntFunction;
+
+/**
+ * The interchangeable percolation engines, by the name used on the command line.
+ */
+public enum PercolationEngine {
+    PERCOLATION("percolation", Percolation::new),
+    SINGLE_UNION("single-union", SingleUnionPercolation::new),
+    COMPACT("compact", CompactPercolation::new),
+    CONCURRENT("concurrent", ConcurrentPercolation::new);
+
+    private final String name;
+    private final IntFunction<PercolationModel> factory;
+
+    PercolationEngine(String name, IntFunction<PercolationModel> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * @return the name used on the command line
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return creates an n-by-n system of this engine
+     */
+    public IntFunction<PercolationModel> factory() {
+        return factory;
+    }
+
+    /**
+     * @param name the command line name of an engine
+     * @return the engine with that name
+     * @throws IllegalArgumentException if there is none
+     */
+    public static PercolationEngine byName(String name) {
+        for (PercolationEngine engine : values()) {
+            if (engine.name.equals(name)) return engine;
+        }
+        throw new IllegalArgumentException("unknown engine " + name);
+    }
+}
@@ -17,6 +17,11 @@ import javax.swing.border.MatteBorder;
 import main.transitionframes.PercolatedFrame;
 
 public class PercolationGUI {
+    /**
+     * Biggest grid drawn with one button per site, see PercolationCanvasGUI beyond that
+     */
+    public static final int MAX_N = 50;
+
     /**
      * The grid frame.
     */
@@ -25,7 +30,13 @@ public class PercolationGUI {
     /**
      * Object that runs the percolation system.
      */
-    private final Percolation percolation;
+    private final PercolationModel percolation;
+
+    /**
+     * The same system when it is a {@code Percolation}, which reports its newly full sites
+     * and can undo opens; {@code null} for the other engines
+     */
+    private final Percolation listening;
 
     /**
      * Buttons that change colors according to its status in the percolation system.
@@ -35,8 +46,9 @@ public class PercolationGUI {
      */
     private final Buttons[] buttons;
 
-     /**
-     * List of indices of the buttons with open sites.
+    /**
+     * List of indices of the buttons with open sites, rescanned after each open
+     * when the system does not report its newly full sites
      */
     private final ArrayList<Integer> openBtns;
 
@@ -91,11 +103,22 @@ public class PercolationGUI {
      * @param N to set an N-by-N grid
      */
     public PercolationGUI(final int N) {
+        this(N, new Percolation(N, RollbackUnionFind::new));
+    }
+
+    /**
+     * The gridLayout frame, a visualization of the given percolation system.
+     * @param N to set an N-by-N grid
+     * @param percolation an N-by-N system with every site blocked; Ctrl+Z undoes the last open
+     *                    if it is a {@code Percolation} that can roll back
+     */
+    public PercolationGUI(final int N, final PercolationModel percolation) {
         grid = new JFrame();
         this.N = N;
         length = N * N + 2;
         buttons = new Buttons[length];
-        percolation = new Percolation(N);
+        this.percolation = percolation;
+        listening = percolation instanceof Percolation ? (Percolation) percolation : null;
         openBtns = new ArrayList<>();
 
         final ActionListener buttonListener = new buttonActionListener();
@@ -110,6 +133,9 @@ public class PercolationGUI {
             grid.add(buttons[i]);
         }
         defaultBorder = buttons[1].getBorder();
+
+        // only the sites that become full are repainted
+        if (listening != null) listening.setFullSiteListener(idx -> buttons[idx].setColor(blue));
         
         grid.setLayout(new GridLayout(N, N));
         grid.setTitle("Percolation");
@@ -120,6 +146,20 @@ public class PercolationGUI {
         grid.setVisible(true);
     }
 
+    /**
+     * Blocks again the site opened last and repaints the sites that changed
+     */
+    private void undo() {
+        if (listening == null || !listening.canRollback() || listening.numberOfOpenSites() == 0) return;
+
+        listening.rollback(listening.numberOfOpenSites() - 1, idx -> {
+            boolean open = percolation.isOpen(idx);
+            buttons[idx].setOpen(open);
+            buttons[idx].setColor(!open ? Color.BLACK : percolation.isFull(idx) ? blue : brown);
+        });
+        setPercolated(percolation.percolates());
+    }
+
     private void setSelectionBorder(JButton[] b, int idx) {
         b[idx].setBorder(new MatteBorder(2, 2, 2, 2, gray));
     }
@@ -137,12 +177,14 @@ public class PercolationGUI {
 
             if (!btn.isOpen()) {
                 btn.setColor(brown);
-                percolation.open(btn.getIdx());
                 btn.setOpen(true);
-                openBtns.add(btn.getIdx());
-                for (int i = 0; i < openBtns.size(); i++) {
-                    if (percolation.isFull(openBtns.get(i))) {
-                        buttons[openBtns.get(i)].setColor(blue);
+                percolation.open(btn.getIdx()); // turns the newly full sites blue, if listening
+                if (listening == null) {
+                    openBtns.add(btn.getIdx());
+                    for (int i = 0; i < openBtns.size(); i++) {
+                        if (percolation.isFull(openBtns.get(i))) {
+                            buttons[openBtns.get(i)].setColor(blue);
+                        }
                     }
                 }
                 if (!getPercolated() && percolation.percolates()) {
@@ -167,6 +209,12 @@ public class PercolationGUI {
                 ((JButton) e.getComponent()).doClick();
                 return;
             }
+
+            // ctrl+z pressed
+            if (e.getKeyCode() == KeyEvent.VK_Z && e.isControlDown()) {
+                undo();
+                return;
+            }
             
             switch (e.getKeyCode()) {
             case KeyEvent.VK_UP:
@@ -0,0 +1,78 @@
+package main.percolation;
+
+import java.util.Objects;
+
+/**
+ * An n-by-n percolation system whose sites are indexed from 1 to n*n, row by row.
+ * Implemented by every percolation engine, so the GUI and the stats driver can switch between them.
+ */
+public interface PercolationModel {
+
+    /**
+     * Opens the site if it is not open already
+     * @param idx the index of the site to open
+     */
+    void open(int idx);
+
+    /**
+     * @param idx the index of the site to verify
+     * @return {@code true} if the site is open
+     */
+    boolean isOpen(int idx);
+
+    /**
+     * A site is full if it is open and connected to the top row through open sites
+     * @param idx the index of the site to verify
+     * @return {@code true} if the site is full
+     */
+    boolean isFull(int idx);
+
+    /**
+     * @return the number of open sites
+     */
+    int numberOfOpenSites();
+
+    /**
+     * @return {@code true} if a full site exists in the bottom row
+     */
+    boolean percolates();
+
+    /**
+     * Blocks every site again in place, so one system can run many trials without allocating
+     */
+    void reset();
+
+    /**
+     * Opens every site of the array, in order
+     * @param sites indices of the sites to open
+     * @return the position in {@code sites} of the site whose opening made the system percolate,
+     *         -1 if it still doesn't percolate or already did before the call
+     */
+    default int openAll(int[] sites) {
+        return openAll(sites, 0, sites.length, false);
+    }
+
+    /**
+     * Opens the sites {@code sites[from..to-1]}, in order, without allocating
+     * @param sites indices of the sites to open, e.g. a random permutation of 1..n*n
+     * @param from first position to open, inclusive
+     * @param to last position to open, exclusive
+     * @param stopAtPercolation stop as soon as the system percolates
+     * @return the position in {@code sites} of the site whose opening made the system percolate,
+     *         -1 if it still doesn't percolate or already did before the call
+     */
+    default int openAll(int[] sites, int from, int to, boolean stopAtPercolation) {
+        Objects.checkFromToIndex(from, to, sites.length);
+        boolean percolated = percolates();
+        int first = -1;
+        for (int i = from; i < to; i++) {
+            open(sites[i]);
+            if (!percolated && percolates()) {
+                percolated = true;
+                first = i;
+                if (stopAtPercolation) break;
+            }
+        }
+        return first;
+    }
+}
@@ -0,0 +1,199 @@
+package main.percolation;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/*
+    Monte Carlo estimate of the percolation threshold p*.
+
+    trial:  all sites blocked -> open random blocked sites -> stop when it percolates
+            p* ~ (open sites) / n^2
+
+    The trials are independent, so they are spread across a fork-join pool.
+    Trial i always draws from the i-th stream split from the seed,
+    hence the results do not depend on the number of threads.
+
+    The trials themselves are run by a TrialRunner, which pools the systems and permutation
+    arrays: one per trial running at once, reset between trials and dropped with the runner.
+
+    A long-running process can share one pool between many estimates and follow each one
+    trial by trial, see the constructor taking a ForkJoinPool and a listener.
+
+    Bond percolation (see bonds) runs the same trials on the 2n(n-1) bonds of a BondPercolation:
+    p* ~ (open bonds) / 2n(n-1).
+*/
+
+public class PercolationStats {
+    /**
+     * Fraction of open sites (or bonds) when each trial percolated
+     */
+    private final double[] thresholds;
+
+    private final double mean;
+    private final double stddev;
+
+    /**
+     * Runs {@code trials} independent experiments on an n-by-n grid using every available core
+     * @param n to set an n-by-n percolation grid
+     * @param trials number of independent experiments
+     * @param seed makes the experiments reproducible
+     */
+    public PercolationStats(int n, int trials, long seed) {
+        this(n, trials, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Runs {@code trials} independent experiments on an n-by-n grid
+     * @param n to set an n-by-n percolation grid
+     * @param trials number of independent experiments
+     * @param seed makes the experiments reproducible
+     * @param threads parallelism of the fork-join pool
+     */
+    public PercolationStats(int n, int trials, long seed, int threads) {
+        this(n, trials, seed, threads, Percolation::new);
+    }
+
+    /**
+     * Runs {@code trials} independent experiments on an n-by-n grid
+     * @param n to set an n-by-n percolation grid
+     * @param trials number of independent experiments
+     * @param seed makes the experiments reproducible
+     * @param threads parallelism of the fork-join pool
+     * @param engine creates the percolation system of each trial, e.g. {@code SingleUnionPercolation::new}
+     */
+    public PercolationStats(int n, int trials, long seed, int threads, IntFunction<? extends PercolationModel> engine) {
+        this(TrialRunner.sites(n), trials, seed, threads, null, TrialRunner.sites(engine, n), null);
+    }
+
+    /**
+     * Runs {@code trials} independent experiments on an n-by-n grid, on a pool shared with other work
+     * @param n to set an n-by-n percolation grid
+     * @param trials number of independent experiments
+     * @param seed makes the experiments reproducible
+     * @param pool runs the trials, and is left running
+     * @param engine creates the percolation system of each trial, e.g. {@code SingleUnionPercolation::new}
+     * @param listener receives the threshold of each trial as soon as it is done, from the worker threads
+     *                 (may be null); nothing of the trials is kept in the pool once they are done
+     */
+    public PercolationStats(int n, int trials, long seed, ForkJoinPool pool,
+                            IntFunction<? extends PercolationModel> engine, DoubleConsumer listener) {
+        this(TrialRunner.sites(n), trials, seed, 1, Objects.requireNonNull(pool), TrialRunner.sites(engine, n), listener);
+    }
+
+    /**
+     * Runs {@code trials} independent experiments on the bonds of an n-by-n grid, using {@code BondPercolation}
+     * @param n to set an n-by-n percolation grid, from 2 to 32768
+     * @param trials number of independent experiments
+     * @param seed makes the experiments reproducible
+     * @param threads parallelism of the fork-join pool
+     * @return the statistics of the fraction of open bonds when the system percolates
+     */
+    public static PercolationStats bonds(int n, int trials, long seed, int threads) {
+        if (n < 2 || n > 32768)
+            throw new IllegalArgumentException();
+        return new PercolationStats(2 * n * (n - 1), trials, seed, threads, null, () -> {
+            BondPercolation percolation = new BondPercolation(n);
+            return order -> {
+                if (percolation.numberOfOpenBonds() > 0) percolation.reset();
+                return percolation.openAll(order, 0, order.length, true);
+            };
+        }, null);
+    }
+
+    /**
+     * @param units number of sites (or bonds) of each system
+     * @param pool the pool to run on, or null to run on a new one of {@code threads} threads
+     * @param system creates a system, as a function running one trial on it
+     * @param listener receives the threshold of each trial as soon as it is done, may be null
+     */
+    private PercolationStats(int units, int trials, long seed, int threads, ForkJoinPool pool,
+                             Supplier<ToIntFunction<int[]>> system, DoubleConsumer listener) {
+        if (trials < 1 || threads < 1)
+            throw new IllegalArgumentException();
+
+        TrialRunner runner = new TrialRunner(units, system);
+        thresholds = new double[trials];
+
+        // one stream per trial, split in order so trial i is the same whatever the thread count
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[trials];
+        for (int i = 0; i < trials; i++) {
+            streams[i] = root.split();
+        }
+
+        if (pool != null) {
+            runner.run(pool, streams, thresholds, listener);
+        }
+        else {
+            ForkJoinPool own = new ForkJoinPool(threads);
+            try {
+                runner.run(own, streams, thresholds, listener);
+            } finally {
+                own.shutdown();
+            }
+        }
+
+        double sum = 0;
+        for (double x : thresholds) sum += x;
+        mean = sum / trials;
+
+        double squares = 0;
+        for (double x : thresholds) squares += (x - mean) * (x - mean);
+        stddev = trials > 1 ? Math.sqrt(squares / (trials - 1)) : Double.NaN;
+    }
+
+    /**
+     * @return sample mean of the percolation threshold
+     */
+    public double mean() {
+        return mean;
+    }
+
+    /**
+     * @return sample standard deviation of the percolation threshold ({@code NaN} for a single trial)
+     */
+    public double stddev() {
+        return stddev;
+    }
+
+    /**
+     * @return low endpoint of the 95% confidence interval
+     */
+    public double confidenceLo() {
+        return mean - TrialRunner.halfWidth(stddev, thresholds.length);
+    }
+
+    /**
+     * @return high endpoint of the 95% confidence interval
+     */
+    public double confidenceHi() {
+        return mean + TrialRunner.halfWidth(stddev, thresholds.length);
+    }
+
+    /**
+     * @return number of trials
+     */
+    public int trials() {
+        return thresholds.length;
+    }
+
+    /**
+     * Usage: PercolationStats n trials [seed] [threads]
+     */
+    public static void main(String[] args) {
+        int n = Integer.parseInt(args[0]);
+        int trials = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        PercolationStats stats = new PercolationStats(n, trials, seed, threads);
+        System.out.println("mean                    = " + stats.mean());
+        System.out.println("stddev                  = " + stats.stddev());
+        System.out.println("95% confidence interval = [" + stats.confidenceLo() + ", " + stats.confidenceHi() + "]");
+    }
+}
@@ -0,0 +1,40 @@
+package main.percolation;
+
+// version of edu.princeton.cs.algs4.QuickFindUF: O(1) find, O(n) union, a baseline for small grids only
+
+public class QuickFind implements UnionFind {
+    private final int[] id;   // id[i] = the set of i
+
+    public QuickFind(int arraySize) {
+        id = new int[arraySize];
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < id.length; i++) id[i] = i;
+    }
+
+    @Override
+    public int find(int i) {
+        validate(i);
+        return id[i];
+    }
+
+    @Override
+    public void union(int p, int q) {
+        int idP = find(p);
+        int idQ = find(q);
+        if (idP == idQ) return;
+        for (int i = 0; i < id.length; i++) {
+            if (id[i] == idP) id[i] = idQ;
+        }
+    }
+
+    private void validate(int p) {
+        int n = id.length;
+        if (p < 0 || p >= n) {
+            throw new IllegalArgumentException("index " + p + " is not between 0 and " + (n-1));
+        }
+    }
+}
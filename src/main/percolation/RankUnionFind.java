@@ -0,0 +1,59 @@
+package main.percolation;
+
+// union by rank with path splitting: one byte of rank per element instead of an int of size
+
+public class RankUnionFind implements UnionFind {
+    private final int[] parent;   // parent[i] = parent of i
+    private final byte[] rank;    // rank[i] = upper bound of the height of the tree rooted at i, < 32
+
+    private static final UnionFindMetrics METRICS = UnionFindMetrics.register("RankUnionFind");
+
+    public RankUnionFind(int arraySize) {
+        parent = new int[arraySize];
+        rank = new byte[arraySize];
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            rank[i] = 0;
+        }
+    }
+
+    @Override
+    public int find(int i) {
+        validate(i);
+        int steps = 0;
+        while (parent[i] != i) {
+            int next = parent[i];
+            parent[i] = parent[next];        // path splitting: every node on the path skips its parent
+            i = next;
+            steps++;
+        }
+        if (UnionFindMetrics.ENABLED) METRICS.find(steps);
+        return i;
+    }
+
+    @Override
+    public void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (UnionFindMetrics.ENABLED) METRICS.union(rootP != rootQ);
+        if (rootP == rootQ) return;
+        if      (rank[rootP] < rank[rootQ]) parent[rootP] = rootQ;
+        else if (rank[rootP] > rank[rootQ]) parent[rootQ] = rootP;
+        else {
+            parent[rootQ] = rootP;
+            rank[rootP]++;
+        }
+    }
+
+    private void validate(int p) {
+        int n = parent.length;
+        if (p < 0 || p >= n) {
+            throw new IllegalArgumentException("index " + p + " is not between 0 and " + (n-1));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package main.percolation;
+
+/*
+    Rem's algorithm with splicing.
+
+    Every parent has a greater index than its child, so the roots are the greatest elements.
+    union(p, q) walks up both paths at once, always from the node whose parent is smaller,
+    and hooks that node onto the other parent as it goes (splicing): the lower path is
+    moved into the higher one while it is searched. It stops as soon as both nodes share a
+    parent, which is often well below the roots, or links a root once it reaches one.
+
+    One int per element, no sizes or ranks.
+*/
+
+public class RemUnionFind implements UnionFind {
+    private final int[] parent;   // parent[i] >= i, parent[i] == i for a root
+
+    private static final UnionFindMetrics METRICS = UnionFindMetrics.register("RemUnionFind");
+
+    public RemUnionFind(int arraySize) {
+        parent = new int[arraySize];
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < parent.length; i++) parent[i] = i;
+    }
+
+    @Override
+    public int find(int i) {
+        validate(i);
+        int steps = 0;
+        while (parent[i] != i) {
+            int next = parent[i];
+            parent[i] = parent[next];        // path splitting
+            i = next;
+            steps++;
+        }
+        if (UnionFindMetrics.ENABLED) METRICS.find(steps);
+        return i;
+    }
+
+    @Override
+    public void union(int p, int q) {
+        validate(p);
+        validate(q);
+        while (parent[p] != parent[q]) {
+            if (parent[p] < parent[q]) {
+                if (parent[p] == p) {        // p is a root: link it below q's parent
+                    parent[p] = parent[q];
+                    if (UnionFindMetrics.ENABLED) METRICS.union(true);
+                    return;
+                }
+                int next = parent[p];
+                parent[p] = parent[q];       // splice
+                p = next;
+            }
+            else {
+                if (parent[q] == q) {
+                    parent[q] = parent[p];
+                    if (UnionFindMetrics.ENABLED) METRICS.union(true);
+                    return;
+                }
+                int next = parent[q];
+                parent[q] = parent[p];
+                q = next;
+            }
+        }
+        if (UnionFindMetrics.ENABLED) METRICS.union(false);
+    }
+
+    private void validate(int p) {
+        int n = parent.length;
+        if (p < 0 || p >= n) {
+            throw new IllegalArgumentException("index " + p + " is not between 0 and " + (n-1));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package main.percolation;
+
+/*
+    Union-find that can undo its unions, newest first.
+
+    Union by size keeps the trees O(log n) high without path compression, and without
+    compression a union changes one parent and one size only. Each union pushes the root
+    it linked, so undoing it is: pop the root, take its size back from its parent, make it
+    a root again.
+
+        checkpoint()   the number of unions so far
+        rollback(c)    undoes the unions made after checkpoint c, O(1) each
+
+    find costs O(log n) instead of the nearly O(1) of WeightedQuickUnion.
+*/
+
+public class RollbackUnionFind implements UnionFind {
+    private final int[] parent;   // parent[i] = parent of i
+    private final int[] size;     // size[i] = number of elements in subtree rooted at i
+
+    /**
+     * Roots linked by every union, oldest first; at most arraySize - 1 unions can link anything
+     */
+    private final int[] history;
+    private int unions;
+
+    public RollbackUnionFind(int arraySize) {
+        parent = new int[arraySize];
+        size = new int[arraySize];
+        history = new int[Math.max(0, arraySize - 1)];
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        unions = 0;
+    }
+
+    @Override
+    public int find(int i) {
+        validate(i);
+        while (parent[i] != i) i = parent[i];   // no compression, the unions must stay undoable
+        return i;
+    }
+
+    @Override
+    public void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return;
+        if (size[rootP] < size[rootQ]) {
+            int swap = rootP;
+            rootP = rootQ;
+            rootQ = swap;
+        }
+        parent[rootQ] = rootP;
+        size[rootP] += size[rootQ];
+        history[unions++] = rootQ;
+    }
+
+    /**
+     * @param i an element
+     * @return the number of elements in the set containing {@code i}
+     */
+    public int size(int i) {
+        return size[find(i)];
+    }
+
+    /**
+     * @return the state to come back to with {@code rollback}, the number of unions so far
+     */
+    public int checkpoint() {
+        return unions;
+    }
+
+    /**
+     * Undoes every union made since the checkpoint, newest first
+     * @param checkpoint a value returned by {@code checkpoint()} since the last reset
+     * @throws IllegalArgumentException if the checkpoint is later than the current state
+     */
+    public void rollback(int checkpoint) {
+        if (checkpoint < 0 || checkpoint > unions)
+            throw new IllegalArgumentException("checkpoint " + checkpoint + " is not between 0 and " + unions);
+        while (unions > checkpoint) {
+            int child = history[--unions];
+            size[parent[child]] -= size[child];
+            parent[child] = child;
+        }
+    }
+
+    private void validate(int p) {
+        int n = parent.length;
+        if (p < 0 || p >= n) {
+            throw new IllegalArgumentException("index " + p + " is not between 0 and " + (n-1));
+        }
+    }
+}
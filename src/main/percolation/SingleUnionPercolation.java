@@ -0,0 +1,172 @@
+package main.percolation;
+
+import java.util.Arrays;
+
+/*
+    Same system as Percolation, but with a single union-find and no virtual sites.
+
+    Each root carries two bits:
+        TOP     some site of the set is in the first row
+        BOTTOM  some site of the set is in the last row
+    and a union merges the bits of both roots into the new one.
+
+    full:        the root of the site has TOP
+    percolates:  some root has both TOP and BOTTOM (remembered once it happens)
+
+    No virtual bottom means no backwash, so one union-find does the work of two.
+    No virtual site also means the union-find sizes are the cluster sizes, which
+    ClusterStatistics follows when it is asked for.
+*/
+
+public class SingleUnionPercolation implements PercolationModel {
+    private static final byte OPEN = 1;
+    private static final byte TOP = 2;
+    private static final byte BOTTOM = 4;
+
+    /**
+     * Used to set an n-by-n percolation grid
+     */
+    private final int n;
+
+    /**
+     * Number of sites, n*n
+     */
+    private final int sites;
+
+    /**
+     * Number of open sites
+     */
+    private int countOpenSites;
+
+    /**
+     * Has any set ever reached both rows?
+     */
+    private boolean percolates;
+
+    /**
+     * Connects the open neighbor sites. Index 0 is unused to keep the 1-indexing of the grid.
+     */
+    private final WeightedQuickUnion uf;
+
+    /**
+     * OPEN bit for every site; TOP and BOTTOM bits are only meaningful on roots
+     */
+    private final byte[] state;
+
+    /**
+     * Updated on every open and union, {@code null} unless requested
+     */
+    private final ClusterStatistics statistics;
+
+    /**
+     * Creates n-by-n grid, with all sites initially blocked
+     * @param n to set an n-by-n percolation grid
+     */
+    public SingleUnionPercolation(int n) {
+        this(n, false);
+    }
+
+    /**
+     * Creates n-by-n grid, with all sites initially blocked
+     * @param n to set an n-by-n percolation grid
+     * @param clusterStatistics keep the cluster statistics up to date, which costs 4 more bytes per site
+     */
+    public SingleUnionPercolation(int n, boolean clusterStatistics) {
+        if (n < 1 || n > 46340)
+            throw new IllegalArgumentException();
+
+        this.n = n;
+        sites = n * n;
+        uf = new WeightedQuickUnion(sites + 1);
+        state = new byte[sites + 1];
+        statistics = clusterStatistics ? new ClusterStatistics(sites) : null;
+    }
+
+    @Override
+    public void open(int idx) {
+        checkArgument(idx);
+        if ((state[idx] & OPEN) != 0) return;
+
+        byte s = OPEN;
+        if (idx <= n)         s |= TOP;
+        if (idx > sites - n)  s |= BOTTOM;
+        state[idx] |= s;
+        countOpenSites++;
+        if (statistics != null) statistics.added();
+
+        if (idx > n)              neighborUnion(idx - n, idx); // if has up neighbor
+        if (idx <= sites - n)     neighborUnion(idx + n, idx); // if has down neighbor
+        if ((idx - 1) % n != 0)   neighborUnion(idx - 1, idx); // if has left neighbor
+        if (idx % n != 0)         neighborUnion(idx + 1, idx); // if has right neighbor
+
+        if ((state[uf.find(idx)] & (TOP | BOTTOM)) == (TOP | BOTTOM))
+            percolates = true;
+    }
+
+    /**
+     * Connects a set to a neighbor, if the latter is open, and merges the row bits of both roots
+     * @param neighborIdx the up, down, left or right position adjacent to the idx.
+     * @param idx the index to which the neighborIdx is adjacent
+     */
+    private void neighborUnion(int neighborIdx, int idx) {
+        if ((state[neighborIdx] & OPEN) == 0) return;
+
+        int rootP = uf.find(neighborIdx);
+        int rootQ = uf.find(idx);
+        if (rootP == rootQ) return;
+
+        byte rows = (byte) ((state[rootP] | state[rootQ]) & (TOP | BOTTOM));
+        if (statistics != null) statistics.merged(uf.size(rootP), uf.size(rootQ));
+        uf.union(rootP, rootQ);
+        state[uf.find(rootP)] |= rows;
+    }
+
+    @Override
+    public void reset() {
+        uf.reset();
+        Arrays.fill(state, (byte) 0);
+        countOpenSites = 0;
+        percolates = false;
+        if (statistics != null) statistics.reset();
+    }
+
+    /**
+     * Number of clusters, largest cluster and cluster-size histogram, each read in O(1)
+     * @return the live statistics of this system, updated by every later open
+     * @throws IllegalStateException if the system was not created with cluster statistics
+     */
+    public ClusterStatistics clusterStatistics() {
+        if (statistics == null)
+            throw new IllegalStateException("created without cluster statistics");
+        return statistics;
+    }
+
+    @Override
+    public boolean isOpen(int idx) {
+        checkArgument(idx);
+        return (state[idx] & OPEN) != 0;
+    }
+
+    @Override
+    public boolean isFull(int idx) {
+        return isOpen(idx) && (state[uf.find(idx)] & TOP) != 0;
+    }
+
+    @Override
+    public int numberOfOpenSites() {
+        return countOpenSites;
+    }
+
+    @Override
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * @param idx check if the index represents a position in the grid
+     */
+    private void checkArgument(int idx) {
+        if (idx > sites || idx < 1)
+            throw new IllegalArgumentException();
+    }
+}
@@ -0,0 +1,162 @@
+package main.percolation;
+
+import java.util.Arrays;
+
+/*
+    SingleUnionPercolation for huge grids with few open sites: memory grows with the
+    open sites, not with the grid.
+
+        sites       LongIntHashMap from the site index (1 to n*n, long) to its element,
+                    given in opening order; a site absent from the map is blocked
+        uf          GrowableUnionFind over the elements
+        rows        TOP and BOTTOM bits of every element, only meaningful on roots
+
+    about 40 bytes per open site (the map is kept at most half full),
+    against the 8.5 bytes per site of LargePercolation: the sparse engine wins below
+    roughly one open site in five.
+*/
+
+public class SparsePercolation {
+    private static final byte TOP = 1;
+    private static final byte BOTTOM = 2;
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Used to set an n-by-n percolation grid
+     */
+    private final long n;
+
+    /**
+     * Number of sites, n*n
+     */
+    private final long sites;
+
+    /**
+     * Has any set ever reached both rows?
+     */
+    private boolean percolates;
+
+    /**
+     * Element of every open site
+     */
+    private final LongIntHashMap elements;
+
+    /**
+     * Connects the open neighbor sites
+     */
+    private final GrowableUnionFind uf;
+
+    /**
+     * TOP and BOTTOM bits of every element
+     */
+    private byte[] rows;
+
+    /**
+     * Creates n-by-n grid, with all sites initially blocked
+     * @param n to set an n-by-n percolation grid
+     */
+    public SparsePercolation(long n) {
+        if (n < 1 || n > 3037000499L)     // n*n must fit in a long
+            throw new IllegalArgumentException();
+
+        this.n = n;
+        sites = n * n;
+        elements = new LongIntHashMap();
+        uf = new GrowableUnionFind();
+        rows = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Blocks every site again and gives the memory back
+     */
+    public void reset() {
+        elements.clear();
+        uf.reset();
+        rows = new byte[INITIAL_CAPACITY];
+        percolates = false;
+    }
+
+    /**
+     * Opens the site if it is not open already
+     * @param idx the index of the site to open
+     */
+    public void open(long idx) {
+        checkArgument(idx);
+        if (elements.get(idx) >= 0) return;
+
+        int element = uf.add();
+        elements.put(idx, element);
+        if (element == rows.length) rows = Arrays.copyOf(rows, uf.count() * 2);
+        byte r = 0;
+        if (idx <= n)         r |= TOP;
+        if (idx > sites - n)  r |= BOTTOM;
+        rows[element] = r;
+
+        if (idx > n)              neighborUnion(idx - n, element); // if has up neighbor
+        if (idx <= sites - n)     neighborUnion(idx + n, element); // if has down neighbor
+        if ((idx - 1) % n != 0)   neighborUnion(idx - 1, element); // if has left neighbor
+        if (idx % n != 0)         neighborUnion(idx + 1, element); // if has right neighbor
+
+        if (rows[uf.find(element)] == (TOP | BOTTOM))
+            percolates = true;
+    }
+
+    /**
+     * Connects a set to a neighbor, if the latter is open, and merges the row bits of both roots
+     * @param neighborIdx the up, down, left or right position adjacent to the site
+     * @param element the element of the site
+     */
+    private void neighborUnion(long neighborIdx, int element) {
+        int neighbor = elements.get(neighborIdx);
+        if (neighbor < 0) return;
+
+        int rootP = uf.find(neighbor);
+        int rootQ = uf.find(element);
+        if (rootP == rootQ) return;
+
+        byte r = (byte) (rows[rootP] | rows[rootQ]);
+        uf.union(rootP, rootQ);
+        rows[uf.find(rootP)] = r;
+    }
+
+    /**
+     * @param idx the index of the site to verify
+     * @return {@code true} if the site is open
+     */
+    public boolean isOpen(long idx) {
+        checkArgument(idx);
+        return elements.get(idx) >= 0;
+    }
+
+    /**
+     * @param idx the index of the site to verify
+     * @return {@code true} if the site is open and connected to the top row
+     */
+    public boolean isFull(long idx) {
+        checkArgument(idx);
+        int element = elements.get(idx);
+        return element >= 0 && (rows[uf.find(element)] & TOP) != 0;
+    }
+
+    /**
+     * @return the number of open sites
+     */
+    public long numberOfOpenSites() {
+        return uf.count();
+    }
+
+    /**
+     * @return {@code true} if the system percolates
+     */
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * @param idx check if the index represents a position in the grid
+     */
+    private void checkArgument(long idx) {
+        if (idx > sites || idx < 1)
+            throw new IllegalArgumentException();
+    }
+}
@@ -0,0 +1,218 @@
+package main.percolation;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/*
+    Percolation check of a grid read one row at a time (Hoshen-Kopelman), in O(n) memory.
+
+    Only the labels of the previous row are kept: label l in [0, n) stands for a set of open
+    sites that reaches the previous row, and top[l] tells if that set reaches the first row.
+
+    For each new row:
+        node n + col       the open site (row, col)
+        node l < n         label l of the previous row
+        union each open site with its open left neighbor and with the label above it,
+        then relabel the sets that reach the new row as 0, 1, 2, ...
+    A set that does not reach the new row can never grow again, so it is forgotten.
+
+    After the last row: it percolates if some label of the last row reaches the first one,
+    and each such label is a distinct spanning cluster.
+*/
+
+public class StreamingPercolation {
+    /**
+     * Number of columns
+     */
+    private final int n;
+
+    /**
+     * Number of rows read so far
+     */
+    private int rows;
+
+    /**
+     * Label of each site of the previous row, -1 if blocked
+     */
+    private int[] labels;
+    private int[] nextLabels;
+
+    /**
+     * Does the set with this label reach the first row?
+     */
+    private boolean[] top;
+    private boolean[] nextTop;
+
+    /**
+     * Label-equivalence union-find of one row: n labels of the previous row + n sites of the new one
+     */
+    private final int[] parent;
+
+    /**
+     * Does the set of this root reach the first row? New label of this root, -1 if none yet.
+     */
+    private final boolean[] rootTop;
+    private final int[] rootLabel;
+
+    private long countOpenSites;
+
+    /**
+     * @param n number of columns of the grid
+     */
+    public StreamingPercolation(int n) {
+        if (n < 1)
+            throw new IllegalArgumentException();
+
+        this.n = n;
+        labels = new int[n];
+        nextLabels = new int[n];
+        top = new boolean[n];
+        nextTop = new boolean[n];
+        parent = new int[2 * n];
+        rootTop = new boolean[2 * n];
+        rootLabel = new int[2 * n];
+        Arrays.fill(labels, -1);
+    }
+
+    private int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];   // path halving
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        // link to the smaller node, labels of the previous row stay roots as long as possible
+        if (rootP < rootQ) parent[rootQ] = rootP;
+        else               parent[rootP] = rootQ;
+    }
+
+    /**
+     * Reads the next row of the grid
+     * @param open {@code open[col]} tells if the site is open; the array is not kept
+     */
+    public void addRow(boolean[] open) {
+        if (open.length != n)
+            throw new IllegalArgumentException("expected " + n + " columns, got " + open.length);
+
+        for (int i = 0; i < 2 * n; i++) {
+            parent[i] = i;
+            rootTop[i] = false;
+            rootLabel[i] = -1;
+        }
+
+        for (int col = 0; col < n; col++) {
+            if (!open[col]) continue;
+            countOpenSites++;
+            int site = n + col;
+            if (col > 0 && open[col - 1])  union(site - 1, site);        // left neighbor
+            if (labels[col] >= 0)          union(labels[col], site);     // up neighbor
+        }
+
+        // the first row reaches itself, the others inherit it from the labels above
+        for (int l = 0; l < n; l++) {
+            if (top[l]) rootTop[find(l)] = true;
+        }
+
+        int count = 0;
+        for (int col = 0; col < n; col++) {
+            if (!open[col]) {
+                nextLabels[col] = -1;
+                continue;
+            }
+            int root = find(n + col);
+            if (rootLabel[root] < 0) {
+                rootLabel[root] = count;
+                nextTop[count] = rows == 0 || rootTop[root];
+                count++;
+            }
+            nextLabels[col] = rootLabel[root];
+        }
+        Arrays.fill(nextTop, count, n, false);
+
+        int[] swapLabels = labels;
+        labels = nextLabels;
+        nextLabels = swapLabels;
+        boolean[] swapTop = top;
+        top = nextTop;
+        nextTop = swapTop;
+        rows++;
+    }
+
+    /**
+     * @return number of distinct sets that connect the first row to the last row read
+     */
+    public int spanningClusters() {
+        int count = 0;
+        for (int l = 0; l < n; l++) {
+            if (top[l]) count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return {@code true} if the rows read so far percolate from the first to the last one
+     */
+    public boolean percolates() {
+        return spanningClusters() > 0;
+    }
+
+    /**
+     * @return number of rows read so far
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return number of open sites read so far
+     */
+    public long numberOfOpenSites() {
+        return countOpenSites;
+    }
+
+    /**
+     * Reads a whole grid written as text, one line per row: '1' is an open site, '0' a blocked one.
+     * The first line sets the number of columns. For a channel, use {@code Channels.newInputStream}.
+     * @param in the grid, read until its end
+     * @return the evaluator after the last row
+     * @throws IOException if the stream fails or a row has a different length
+     */
+    public static StreamingPercolation read(InputStream in) throws IOException {
+        InputStream input = new BufferedInputStream(in, 1 << 16);
+        boolean[] row = new boolean[16];
+        StreamingPercolation grid = null;
+        int col = 0;
+
+        for (int c = input.read(); ; c = input.read()) {
+            if (c == '\r') continue;
+            if (c == '\n' || c == -1) {
+                if (col > 0) {
+                    if (grid == null) {
+                        grid = new StreamingPercolation(col);
+                        row = Arrays.copyOf(row, col);
+                    }
+                    if (col != grid.n) throw new IOException("row " + (grid.rows + 1) + " has " + col + " columns, expected " + grid.n);
+                    grid.addRow(row);
+                }
+                col = 0;
+                if (c == -1) break;
+                continue;
+            }
+            if (c != '0' && c != '1') throw new IOException("unexpected character '" + (char) c + "'");
+            if (col == row.length) {
+                if (grid != null) throw new IOException("row " + (grid.rows + 1) + " is longer than " + grid.n + " columns");
+                row = Arrays.copyOf(row, 2 * row.length);
+            }
+            row[col++] = c == '1';
+        }
+
+        if (grid == null) throw new IOException("empty grid");
+        return grid;
+    }
+}
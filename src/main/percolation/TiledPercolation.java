@@ -0,0 +1,241 @@
+package main.percolation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+    Percolation of a fully specified grid, computed in parallel.
+
+    1. the rows are split in horizontal strips, each labeled by its own WeightedQuickUnion
+       in parallel
+    2. only the sets that reach the first or last row of their strip can be full
+       (the top row itself is the first row of strip 0), so each of them gets a "slot":
+       strip s has 2n slots, one per site of its first row and one per site of its last row
+    3. a small union-find over the slots (+ virtual top) merges the strips along their
+       boundary rows, sequentially, in O(strips * n)
+
+        site label:  BLOCKED, INTERIOR (open, never full) or the slot of its set
+
+    Memory: 4 bytes per site for the labels, plus the union-find of the strips being labeled.
+*/
+
+public class TiledPercolation {
+    private static final int BLOCKED = -1;
+    private static final int INTERIOR = -2;
+
+    /**
+     * Used to set an n-by-n percolation grid
+     */
+    private final int n;
+
+    /**
+     * First row of every strip, plus n at the end
+     */
+    private final int[] stripRows;
+
+    /**
+     * Label of every site, 0-indexed row by row
+     */
+    private final int[] labels;
+
+    /**
+     * For every slot, the first slot of the same strip that belongs to the same set (itself if none)
+     */
+    private final int[] alias;
+
+    /**
+     * Union-find over the slots, the last element is the virtual top
+     */
+    private final WeightedQuickUnion merged;
+    private final int virtualTop;
+
+    private final boolean[][] open;
+
+    /**
+     * Number of open sites of every strip
+     */
+    private final int[] stripOpenSites;
+    private final int countOpenSites;
+    private final boolean percolates;
+
+    /**
+     * Labels the grid with one strip per available core
+     * @param open {@code open[row][col]} tells if the site is open, n-by-n
+     */
+    public TiledPercolation(boolean[][] open) {
+        this(open, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param open {@code open[row][col]} tells if the site is open, n-by-n
+     * @param strips number of strips, labeled in parallel by at most one thread per available core
+     */
+    public TiledPercolation(boolean[][] open, int strips) {
+        n = open.length;
+        if (n < 1 || n > 46340 || strips < 1)
+            throw new IllegalArgumentException();
+        for (boolean[] row : open) {
+            if (row.length != n) throw new IllegalArgumentException("the grid must be n-by-n");
+        }
+
+        this.open = open;
+        strips = Math.min(strips, n);
+        stripRows = new int[strips + 1];
+        for (int s = 0; s <= strips; s++) stripRows[s] = (int) ((long) s * n / strips);
+
+        labels = new int[n * n];
+        alias = new int[strips * 2 * n];
+        stripOpenSites = new int[strips];
+
+        ForkJoinPool pool = new ForkJoinPool(Math.min(strips, Runtime.getRuntime().availableProcessors()));
+        try {
+            pool.invoke(new StripTask(0, strips));
+        } finally {
+            pool.shutdown();
+        }
+        countOpenSites = Arrays.stream(stripOpenSites).sum();
+
+        virtualTop = alias.length;
+        merged = new WeightedQuickUnion(alias.length + 1);
+        for (int slot = 0; slot < alias.length; slot++) {
+            if (alias[slot] != slot) merged.union(slot, alias[slot]);
+        }
+        for (int s = 1; s < strips; s++) {
+            int above = (stripRows[s] - 1) * n;
+            int below = stripRows[s] * n;
+            for (int col = 0; col < n; col++) {
+                if (labels[above + col] >= 0 && labels[below + col] >= 0)
+                    merged.union(labels[above + col], labels[below + col]);
+            }
+        }
+        for (int col = 0; col < n; col++) {
+            if (labels[col] >= 0) merged.union(virtualTop, labels[col]);
+        }
+
+        boolean bottomFull = false;
+        for (int col = 0; col < n && !bottomFull; col++) {
+            bottomFull = isFull((n - 1) * n + col + 1);
+        }
+        percolates = bottomFull;
+    }
+
+    /**
+     * Labels the rows [stripRows[s], stripRows[s + 1]) and fills the slots of strip s
+     * @return the number of open sites of the strip
+     */
+    private int labelStrip(int s) {
+        int firstRow = stripRows[s];
+        int rows = stripRows[s + 1] - firstRow;
+        int base = firstRow * n;
+        WeightedQuickUnion uf = new WeightedQuickUnion(rows * n);
+
+        int count = 0;
+        for (int r = 0; r < rows; r++) {
+            boolean[] row = open[firstRow + r];
+            for (int col = 0; col < n; col++) {
+                if (!row[col]) continue;
+                count++;
+                int local = r * n + col;
+                if (col > 0 && row[col - 1])              uf.union(local - 1, local); // left neighbor
+                if (r > 0 && open[firstRow + r - 1][col])  uf.union(local - n, local); // up neighbor
+            }
+        }
+
+        // the first boundary site seen of every set gives the set its slot
+        int[] slotOfRoot = new int[rows * n];
+        Arrays.fill(slotOfRoot, -1);
+        int firstSlot = s * 2 * n;
+        for (int edge = 0; edge < 2; edge++) {
+            int r = edge == 0 ? 0 : rows - 1;
+            for (int col = 0; col < n; col++) {
+                int slot = firstSlot + edge * n + col;
+                alias[slot] = slot;
+                if (!open[firstRow + r][col]) continue;
+
+                int root = uf.find(r * n + col);
+                if (slotOfRoot[root] < 0) slotOfRoot[root] = slot;
+                else                      alias[slot] = slotOfRoot[root];
+            }
+        }
+
+        for (int r = 0; r < rows; r++) {
+            boolean[] row = open[firstRow + r];
+            for (int col = 0; col < n; col++) {
+                int local = r * n + col;
+                if (!row[col]) {
+                    labels[base + local] = BLOCKED;
+                    continue;
+                }
+                int slot = slotOfRoot[uf.find(local)];
+                labels[base + local] = slot >= 0 ? slot : INTERIOR;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Splits the strips until each task labels a single one
+     */
+    @SuppressWarnings("serial")
+    private class StripTask extends RecursiveAction {
+        private final int lo;
+        private final int hi;
+
+        StripTask(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                stripOpenSites[lo] = labelStrip(lo);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new StripTask(lo, mid), new StripTask(mid, hi));
+        }
+    }
+
+    /**
+     * @param idx the index of the site to verify, from 1 to n*n row by row
+     * @return {@code true} if the site is open
+     */
+    public boolean isOpen(int idx) {
+        checkArgument(idx);
+        return labels[idx - 1] != BLOCKED;
+    }
+
+    /**
+     * @param idx the index of the site to verify, from 1 to n*n row by row
+     * @return {@code true} if the site is open and connected to the top row
+     */
+    public boolean isFull(int idx) {
+        checkArgument(idx);
+        int label = labels[idx - 1];
+        return label >= 0 && merged.connected(label, virtualTop);
+    }
+
+    /**
+     * @return the number of open sites
+     */
+    public int numberOfOpenSites() {
+        return countOpenSites;
+    }
+
+    /**
+     * @return {@code true} if a full site exists in the bottom row
+     */
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * @param idx check if the index represents a position in the grid
+     */
+    private void checkArgument(int idx) {
+        if (idx > n * n || idx < 1)
+            throw new IllegalArgumentException();
+    }
+}
@@ -0,0 +1,264 @@
+package main.percolation;
+
+import java.util.Arrays;
+
+/*
+    Percolation that remembers when things happened, so the history can be queried after the run.
+
+    step k is the k-th open (numberOfOpenSites() right after it), step 0 is the empty grid.
+
+    Union by size without path compression: a link, once made, is never moved, and
+    linkStep[i] is the step at which i got its parent. The forest of the links made up to
+    step t is exactly the union-find of step t, so
+
+        p and q connected at step t  <=>  every link on the tree path p .. q has linkStep <= t
+
+    and the first step they were connected is the max linkStep on that path. Union by size
+    keeps the trees O(log n) high, so every query walks O(log n) links.
+
+        site 0:     virtual top, linked to every open site of the first row
+        BOTTOM:     on a root, some site of the set is in the last row
+
+    There is no virtual bottom, so no backwash: the step the system percolated is recorded
+    when a set holding the virtual top first gets the BOTTOM bit.
+*/
+
+public class TimestampedPercolation implements PercolationModel {
+    private static final byte OPEN = 1;
+    private static final byte BOTTOM = 2;
+    private static final int NEVER = -1;
+
+    /**
+     * Used to set an n-by-n percolation grid
+     */
+    private final int n;
+
+    /**
+     * Number of sites, n*n
+     */
+    private final int sites;
+
+    private final int virtualTop = 0;
+
+    private int countOpenSites;
+
+    /**
+     * Step the system percolated, NEVER so far
+     */
+    private int percolationStep;
+
+    private final int[] parent;
+    private final int[] size;
+
+    /**
+     * Step each element was linked to its parent, meaningless on roots
+     */
+    private final int[] linkStep;
+
+    /**
+     * Step each site was opened, NEVER if blocked
+     */
+    private final int[] openStep;
+
+    /**
+     * OPEN bit for every site; BOTTOM bit only meaningful on roots
+     */
+    private final byte[] state;
+
+    /**
+     * Creates n-by-n grid, with all sites initially blocked
+     * @param n to set an n-by-n percolation grid
+     */
+    public TimestampedPercolation(int n) {
+        if (n < 1 || n > 46340)
+            throw new IllegalArgumentException();
+
+        this.n = n;
+        sites = n * n;
+        parent = new int[sites + 1];
+        size = new int[sites + 1];
+        linkStep = new int[sites + 1];
+        openStep = new int[sites + 1];
+        state = new byte[sites + 1];
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i <= sites; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        Arrays.fill(openStep, NEVER);
+        Arrays.fill(state, (byte) 0);
+        countOpenSites = 0;
+        percolationStep = NEVER;
+    }
+
+    @Override
+    public void open(int idx) {
+        checkArgument(idx);
+        if ((state[idx] & OPEN) != 0) return;
+
+        int step = ++countOpenSites;
+        state[idx] = idx > sites - n ? (byte) (OPEN | BOTTOM) : OPEN;
+        openStep[idx] = step;
+
+        if (idx <= n)             link(virtualTop, idx, step);   // first row
+        if (idx > n)              neighborUnion(idx - n, idx, step); // if has up neighbor
+        if (idx <= sites - n)     neighborUnion(idx + n, idx, step); // if has down neighbor
+        if ((idx - 1) % n != 0)   neighborUnion(idx - 1, idx, step); // if has left neighbor
+        if (idx % n != 0)         neighborUnion(idx + 1, idx, step); // if has right neighbor
+
+        if (percolationStep == NEVER) {
+            int root = find(idx);
+            if ((state[root] & BOTTOM) != 0 && root == find(virtualTop)) percolationStep = step;
+        }
+    }
+
+    private void neighborUnion(int neighborIdx, int idx, int step) {
+        if ((state[neighborIdx] & OPEN) != 0) link(neighborIdx, idx, step);
+    }
+
+    /**
+     * Union by size, stamping the new link with the step
+     */
+    private void link(int p, int q, int step) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return;
+        if (size[rootP] < size[rootQ]) {
+            int swap = rootP;
+            rootP = rootQ;
+            rootQ = swap;
+        }
+        parent[rootQ] = rootP;
+        linkStep[rootQ] = step;
+        size[rootP] += size[rootQ];
+        state[rootP] |= state[rootQ] & BOTTOM;
+    }
+
+    /**
+     * No path compression, the links must stay where they were made
+     */
+    private int find(int i) {
+        while (parent[i] != i) i = parent[i];
+        return i;
+    }
+
+    private int depth(int i) {
+        int d = 0;
+        while (parent[i] != i) {
+            i = parent[i];
+            d++;
+        }
+        return d;
+    }
+
+    /**
+     * @return the first step at which p and q were connected, NEVER if they are not
+     */
+    private int connectionStep(int p, int q) {
+        int depthP = depth(p);
+        int depthQ = depth(q);
+        int step = 0;
+        for (; depthP > depthQ; depthP--) {
+            step = Math.max(step, linkStep[p]);
+            p = parent[p];
+        }
+        for (; depthQ > depthP; depthQ--) {
+            step = Math.max(step, linkStep[q]);
+            q = parent[q];
+        }
+        while (p != q) {
+            if (parent[p] == p) return NEVER;   // both roots, different trees
+            step = Math.max(step, Math.max(linkStep[p], linkStep[q]));
+            p = parent[p];
+            q = parent[q];
+        }
+        return step;
+    }
+
+    /**
+     * @param idx the index of the site, from 1 to n*n
+     * @return the step the site became full, -1 if it is not full
+     */
+    public int fullStep(int idx) {
+        checkArgument(idx);
+        if ((state[idx] & OPEN) == 0) return NEVER;
+        return connectionStep(idx, virtualTop);
+    }
+
+    /**
+     * @param idx the index of the site, from 1 to n*n
+     * @param step a number of opens, from 0 to numberOfOpenSites()
+     * @return {@code true} if the site was full right after the given step
+     */
+    public boolean isFullAt(int idx, int step) {
+        checkStep(step);
+        int full = fullStep(idx);
+        return full != NEVER && full <= step;
+    }
+
+    /**
+     * @param idx the index of the site, from 1 to n*n
+     * @param step a number of opens, from 0 to numberOfOpenSites()
+     * @return {@code true} if the site was open right after the given step
+     */
+    public boolean isOpenAt(int idx, int step) {
+        checkArgument(idx);
+        checkStep(step);
+        return openStep[idx] != NEVER && openStep[idx] <= step;
+    }
+
+    /**
+     * @param idx the index of the site, from 1 to n*n
+     * @return the step the site was opened, -1 if it is blocked
+     */
+    public int openStep(int idx) {
+        checkArgument(idx);
+        return openStep[idx];
+    }
+
+    /**
+     * @return the step the system first percolated, i.e. the number of open sites at that moment,
+     *         -1 if it does not percolate yet
+     */
+    public int percolationStep() {
+        return percolationStep;
+    }
+
+    @Override
+    public boolean isOpen(int idx) {
+        checkArgument(idx);
+        return (state[idx] & OPEN) != 0;
+    }
+
+    @Override
+    public boolean isFull(int idx) {
+        return fullStep(idx) != NEVER;
+    }
+
+    @Override
+    public int numberOfOpenSites() {
+        return countOpenSites;
+    }
+
+    @Override
+    public boolean percolates() {
+        return percolationStep != NEVER;
+    }
+
+    /**
+     * @param idx check if the index represents a position in the grid
+     */
+    private void checkArgument(int idx) {
+        if (idx > sites || idx < 1)
+            throw new IllegalArgumentException();
+    }
+
+    private void checkStep(int step) {
+        if (step < 0 || step > countOpenSites)
+            throw new IllegalArgumentException("step " + step + " is not between 0 and " + countOpenSites);
+    }
+}
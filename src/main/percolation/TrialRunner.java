@@ -0,0 +1,161 @@
+package main.percolation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/*
+    The Monte Carlo trials of PercolationStats and AdaptivePercolationStats.
+
+    trial:  random permutation of the units (sites or bonds) drawn from the stream of the trial
+            -> open them in that order until the system percolates
+            -> threshold = (units opened) / units
+
+    The systems and permutation arrays are pooled in the runner, not kept per thread: a trial
+    takes an idle one (or creates it) and gives it back, so there are at most as many as trials
+    running at once, and they all go away with the runner even when the fork-join pool lives on.
+*/
+
+final class TrialRunner {
+    /**
+     * 95% confidence level
+     */
+    static final double CONFIDENCE_95 = 1.96;
+
+    /**
+     * Number of sites (or bonds) each trial opens in random order
+     */
+    private final int units;
+
+    /**
+     * Creates the system of a worker, as a function running one trial on it: blocks everything again,
+     * opens the given order until the system percolates and returns the position of the one that made it percolate
+     */
+    private final Supplier<ToIntFunction<int[]>> system;
+
+    private final ConcurrentLinkedQueue<Worker> idle = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param units number of sites (or bonds) of each system
+     * @param system creates a system, as a function running one trial on it
+     */
+    TrialRunner(int units, Supplier<ToIntFunction<int[]>> system) {
+        this.units = units;
+        this.system = system;
+    }
+
+    /**
+     * @param stddev sample standard deviation of the thresholds
+     * @param trials number of thresholds
+     * @return half-width of the 95% confidence interval of their mean
+     */
+    static double halfWidth(double stddev, int trials) {
+        return CONFIDENCE_95 * stddev / Math.sqrt(trials);
+    }
+
+    /**
+     * @param engine creates an n-by-n system
+     * @return creates a system for site percolation, as a function running one trial on it
+     */
+    static Supplier<ToIntFunction<int[]>> sites(IntFunction<? extends PercolationModel> engine, int n) {
+        return () -> {
+            PercolationModel percolation = engine.apply(n);
+            return order -> {
+                if (percolation.numberOfOpenSites() > 0) percolation.reset();
+                return percolation.openAll(order, 0, order.length, true);
+            };
+        };
+    }
+
+    /**
+     * @param n to set an n-by-n percolation grid
+     * @return the number of sites of an n-by-n grid
+     */
+    static int sites(int n) {
+        if (n < 1 || n > 46340)
+            throw new IllegalArgumentException();
+        return n * n;
+    }
+
+    /**
+     * Runs one trial per stream on the pool and waits for all of them
+     * @param streams the stream of each trial
+     * @param thresholds receives the fraction of open units when each trial percolated
+     * @param listener receives each threshold as soon as it is known, from the worker threads; may be null
+     */
+    void run(ForkJoinPool pool, SplittableRandom[] streams, double[] thresholds, DoubleConsumer listener) {
+        pool.invoke(new TrialTask(streams, thresholds, listener, 0, streams.length));
+    }
+
+    /**
+     * A system and its permutation array, used by one trial at a time
+     */
+    private final class Worker {
+        private final ToIntFunction<int[]> trial = system.get();
+        private final int[] order = new int[units];
+    }
+
+    /**
+     * Opens random blocked units until the system percolates
+     * @param random the stream of this trial
+     * @return the fraction of open units
+     */
+    private double trial(SplittableRandom random) {
+        Worker worker = idle.poll();
+        if (worker == null) worker = new Worker();
+        try {
+            // random permutation of the units, which are 1-indexed;
+            // restarting from the identity keeps trial i independent of the trials run before it
+            int[] order = worker.order;
+            for (int i = 0; i < units; i++) order[i] = i + 1;
+            for (int i = units - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int site = order[j];
+                order[j] = order[i];
+                order[i] = site;
+            }
+
+            int last = worker.trial.applyAsInt(order);
+            return (double) (last + 1) / units;
+        } finally {
+            idle.offer(worker);
+        }
+    }
+
+    /**
+     * Splits the range of trials until each task runs a single one
+     */
+    @SuppressWarnings("serial")
+    private class TrialTask extends RecursiveAction {
+        private final SplittableRandom[] streams;
+        private final double[] thresholds;
+        private final DoubleConsumer listener;
+        private final int lo;
+        private final int hi;
+
+        TrialTask(SplittableRandom[] streams, double[] thresholds, DoubleConsumer listener, int lo, int hi) {
+            this.streams = streams;
+            this.thresholds = thresholds;
+            this.listener = listener;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                thresholds[lo] = trial(streams[lo]);
+                if (listener != null) listener.accept(thresholds[lo]);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new TrialTask(streams, thresholds, listener, lo, mid),
+                      new TrialTask(streams, thresholds, listener, mid, hi));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package main.percolation;
+
+/**
+ * Disjoint sets over the elements {@code 0 .. n-1}, so {@code Percolation} can run on any
+ * union-find algorithm. See {@code UnionFindAlgorithm} for the implementations.
+ */
+public interface UnionFind {
+    /**
+     * Returns the canonical element of the set containing element {@code i}.
+     *
+     * @param  i an element
+     * @return the canonical element of the set containing {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < n}
+     */
+    int find(int i);
+
+    /**
+     * Merges the set containing element {@code p} with the
+     * the set containing element {@code q}.
+     *
+     * @param  p one element
+     * @param  q the other element
+     * @throws IllegalArgumentException unless
+     *         both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    void union(int p, int q);
+
+    /**
+     * Check if p and q have same root
+     */
+    default boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    /**
+     * Splits every set again, back to the state of a new object
+     */
+    void reset();
+}
@@ -0,0 +1,49 @@
+package main.percolation;
+
+import java.util.function.IntFunction;
+
+/**
+ * The union-find implementations {@code Percolation} can run on, by the name used on the command line.
+ */
+public enum UnionFindAlgorithm {
+    WEIGHTED("weighted", WeightedQuickUnion::new),
+    COMPACT("compact", CompactUnionFind::new),
+    REM("rem", RemUnionFind::new),
+    RANK("rank", RankUnionFind::new),
+    QUICK_FIND("quick-find", QuickFind::new),
+    ROLLBACK("rollback", RollbackUnionFind::new);
+
+    private final String name;
+    private final IntFunction<UnionFind> factory;
+
+    UnionFindAlgorithm(String name, IntFunction<UnionFind> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * @return the name used on the command line
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return creates a union-find over as many elements as its argument
+     */
+    public IntFunction<UnionFind> factory() {
+        return factory;
+    }
+
+    /**
+     * @param name the command line name of an algorithm
+     * @return the algorithm with that name
+     * @throws IllegalArgumentException if there is none
+     */
+    public static UnionFindAlgorithm byName(String name) {
+        for (UnionFindAlgorithm algorithm : values()) {
+            if (algorithm.name.equals(name)) return algorithm;
+        }
+        throw new IllegalArgumentException("unknown union-find " + name);
+    }
+}
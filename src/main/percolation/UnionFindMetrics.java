@@ -0,0 +1,255 @@
+package main.percolation;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/*
+    Counters of the union-find hot paths, off unless the JVM runs with -Dpercolation.metrics=true.
+
+    ENABLED is a static final constant, so every  if (UnionFindMetrics.ENABLED) ...  of the hot
+    paths is folded away by the JIT when it is false, along with the step counters it reads.
+
+    One instance per instrumented class (WeightedQuickUnion, CompactUnionFind, RemUnionFind,
+    RankUnionFind, Percolation), shared by all its objects and threads, hence the LongAdders.
+
+        finds, find steps   iterations of the find loop: with path halving or splitting a step
+                            moves one or two nodes up, so the steps bound the tree heights
+        histogram           finds per number of steps, exact up to 63, the last bucket holds the rest
+        unions, links       union calls, and those that joined two different sets
+        opens               sites opened (Percolation)
+        open neighbors      open neighbors of the sites opened (Percolation): Percolation joins each
+                            one in both its union-finds, so their unions count 2 per open neighbor
+
+    Each instance is the MBean  main.percolation:type=UnionFindMetrics,name=<class>, and
+    -Dpercolation.metrics.dumpSeconds=<s> prints every instance to stderr each s seconds.
+*/
+
+public class UnionFindMetrics implements UnionFindMetricsMBean {
+    /**
+     * Are the hot paths instrumented? Read once, when the class is loaded
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("percolation.metrics");
+
+    private static final int BUCKETS = 64;
+
+    private static final UnionFindMetrics[] registered = new UnionFindMetrics[16];
+    private static int countRegistered;
+    private static ScheduledExecutorService dumper;
+
+    static {
+        int seconds = Integer.getInteger("percolation.metrics.dumpSeconds", 0);
+        if (ENABLED && seconds > 0) startDump(System.err, seconds, TimeUnit.SECONDS);
+    }
+
+    private final String name;
+
+    private final LongAdder finds = new LongAdder();
+    private final LongAdder findSteps = new LongAdder();
+    private final LongAccumulator maxFindSteps = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] histogram = new LongAdder[BUCKETS];
+    private final LongAdder unions = new LongAdder();
+    private final LongAdder links = new LongAdder();
+    private final LongAdder opens = new LongAdder();
+    private final LongAdder openNeighbors = new LongAdder();
+
+    /**
+     * @param name the instrumented class
+     */
+    public UnionFindMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < BUCKETS; i++) histogram[i] = new LongAdder();
+    }
+
+    /**
+     * Creates the metrics of a class and, if ENABLED, publishes them as an MBean and in the dumps
+     * @param name the instrumented class
+     * @return the metrics to record into
+     */
+    public static UnionFindMetrics register(String name) {
+        UnionFindMetrics metrics = new UnionFindMetrics(name);
+        if (!ENABLED) return metrics;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics,
+                    new ObjectName("main.percolation:type=UnionFindMetrics,name=" + name));
+        } catch (JMException e) {
+            System.err.println("UnionFindMetrics: " + name + " not published: " + e);
+        }
+        synchronized (UnionFindMetrics.class) {
+            if (countRegistered < registered.length) registered[countRegistered++] = metrics;
+        }
+        return metrics;
+    }
+
+    /**
+     * Prints every registered instance at a fixed rate, from a daemon thread
+     * @param out where to print
+     * @param period time between two dumps
+     * @param unit unit of the period
+     */
+    public static synchronized void startDump(PrintStream out, long period, TimeUnit unit) {
+        if (dumper != null) dumper.shutdownNow();
+        dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "union-find-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> {
+            synchronized (UnionFindMetrics.class) {
+                for (int i = 0; i < countRegistered; i++) out.println(registered[i].dump());
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stops the dumps started by startDump
+     */
+    public static synchronized void stopDump() {
+        if (dumper != null) dumper.shutdownNow();
+        dumper = null;
+    }
+
+    /**
+     * @param steps iterations of the find loop
+     */
+    public void find(int steps) {
+        finds.increment();
+        findSteps.add(steps);
+        maxFindSteps.accumulate(steps);
+        histogram[Math.min(steps, BUCKETS - 1)].increment();
+    }
+
+    /**
+     * @param linked {@code true} if the union joined two different sets
+     */
+    public void union(boolean linked) {
+        unions.increment();
+        if (linked) links.increment();
+    }
+
+    /**
+     * @param neighbors number of open neighbors the new site was joined to
+     */
+    public void opened(int neighbors) {
+        opens.increment();
+        openNeighbors.add(neighbors);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getFinds() {
+        return finds.sum();
+    }
+
+    @Override
+    public double getMeanFindSteps() {
+        long count = finds.sum();
+        return count == 0 ? 0 : (double) findSteps.sum() / count;
+    }
+
+    @Override
+    public long getMaxFindSteps() {
+        return maxFindSteps.get();
+    }
+
+    @Override
+    public long getFindStepsP50() {
+        return percentile(50);
+    }
+
+    @Override
+    public long getFindStepsP99() {
+        return percentile(99);
+    }
+
+    @Override
+    public long getFindStepsP999() {
+        return percentile(99.9);
+    }
+
+    @Override
+    public long[] getFindStepsHistogram() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) counts[i] = histogram[i].sum();
+        return counts;
+    }
+
+    @Override
+    public long getUnions() {
+        return unions.sum();
+    }
+
+    @Override
+    public long getLinks() {
+        return links.sum();
+    }
+
+    @Override
+    public long getOpens() {
+        return opens.sum();
+    }
+
+    @Override
+    public long getOpenNeighbors() {
+        return openNeighbors.sum();
+    }
+
+    @Override
+    public double getOpenNeighborsPerOpen() {
+        long count = opens.sum();
+        return count == 0 ? 0 : (double) openNeighbors.sum() / count;
+    }
+
+    /**
+     * @param percent from 0 to 100
+     * @return the smallest number of steps that many percent of the finds did not exceed, 0 without finds
+     */
+    public long percentile(double percent) {
+        if (percent < 0 || percent > 100)
+            throw new IllegalArgumentException("percent " + percent + " is not between 0 and 100");
+        long[] counts = getFindStepsHistogram();
+        long total = 0;
+        for (long count : counts) total += count;
+        long rank = (long) Math.ceil(percent / 100 * total);
+
+        long seen = 0;
+        for (int steps = 0; steps < BUCKETS; steps++) {
+            seen += counts[steps];
+            if (seen >= rank && seen > 0) return steps;
+        }
+        return 0;
+    }
+
+    @Override
+    public void reset() {
+        finds.reset();
+        findSteps.reset();
+        maxFindSteps.reset();
+        for (LongAdder bucket : histogram) bucket.reset();
+        unions.reset();
+        links.reset();
+        opens.reset();
+        openNeighbors.reset();
+    }
+
+    @Override
+    public String dump() {
+        return String.format(Locale.ROOT,
+                "%s: finds=%d steps mean=%.3f p50=%d p99=%d p99.9=%d max=%d unions=%d links=%d opens=%d neighbors/open=%.3f",
+                name, getFinds(), getMeanFindSteps(), getFindStepsP50(), getFindStepsP99(), getFindStepsP999(),
+                getMaxFindSteps(), getUnions(), getLinks(), getOpens(), getOpenNeighborsPerOpen());
+    }
+}
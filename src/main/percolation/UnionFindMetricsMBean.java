@@ -0,0 +1,63 @@
+package main.percolation;
+
+/**
+ * What {@code UnionFindMetrics} shows through JMX, e.g. in JConsole or VisualVM.
+ */
+public interface UnionFindMetricsMBean {
+    /**
+     * @return the instrumented class
+     */
+    String getName();
+
+    long getFinds();
+
+    /**
+     * @return mean iterations of the find loop
+     */
+    double getMeanFindSteps();
+
+    long getMaxFindSteps();
+
+    long getFindStepsP50();
+
+    long getFindStepsP99();
+
+    long getFindStepsP999();
+
+    /**
+     * @return finds per number of steps, the last element counts every find of 63 steps or more
+     */
+    long[] getFindStepsHistogram();
+
+    /**
+     * @return union calls on the union-find
+     */
+    long getUnions();
+
+    /**
+     * @return unions that joined two different sets
+     */
+    long getLinks();
+
+    /**
+     * @return sites opened (Percolation)
+     */
+    long getOpens();
+
+    /**
+     * @return open neighbors of the sites opened (Percolation), each one joined to the new site
+     */
+    long getOpenNeighbors();
+
+    double getOpenNeighborsPerOpen();
+
+    /**
+     * Sets every counter back to zero
+     */
+    void reset();
+
+    /**
+     * @return every counter on one line
+     */
+    String dump();
+}
@@ -2,14 +2,23 @@ package main.percolation;
 
 // version of edu.princeton.cs.algs4.WeightedQuickUnionUF
 
-public class WeightedQuickUnion {
+public class WeightedQuickUnion implements UnionFind {
     private int[] parent;   // parent[i] = parent of i;
     private int[] size;     // size[i] = number of elements in subtree rooted at i
 
+    private static final UnionFindMetrics METRICS = UnionFindMetrics.register("WeightedQuickUnion");
+
     public WeightedQuickUnion(int arraySize) {
         parent = new int[arraySize];
         size = new int[arraySize];
-        for(int i = 0; i < arraySize; i++) {
+        reset();
+    }
+
+    /**
+     * Splits every set again, back to the state of a new object
+     */
+    public void reset() {
+        for(int i = 0; i < parent.length; i++) {
             parent[i] = i;              // Initially each element is the root of itself
             size[i] = 1;
         }
@@ -24,10 +33,13 @@ public class WeightedQuickUnion {
      */
     public int find(int i) {
         validate(i);
+        int steps = 0;
         while(parent[i] != i)  {
             parent[i] = parent[parent[i]];   // path compression, keeps tree almost completely flat
             i = parent[i];
+            steps++;
         }
+        if (UnionFindMetrics.ENABLED) METRICS.find(steps);
         return i;
     }
 
@@ -50,6 +62,7 @@ public class WeightedQuickUnion {
     public void union(int p, int q) { // O(logN)
         int rootP = find(p);
         int rootQ = find(q);
+        if (UnionFindMetrics.ENABLED) METRICS.union(rootP != rootQ);
         if(rootP == rootQ) return;
         if(size[rootP] < size[rootQ]) {
             parent[rootP] = rootQ;
@@ -61,6 +74,14 @@ public class WeightedQuickUnion {
         }
     }
 
+    /**
+     * @param i an element
+     * @return the number of elements in the set containing {@code i}
+     */
+    public int size(int i) {
+        return size[find(i)];
+    }
+
     private void validate(int p) {
         int n = size.length;
         if (p < 0 || p >= n) {
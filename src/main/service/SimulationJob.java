@@ -0,0 +1,129 @@
+package main.service;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import main.percolation.PercolationEngine;
+import main.percolation.PercolationStats;
+
+/*
+    One threshold estimate submitted to the SimulationServer:
+
+        queued -> running -> done
+                          -> failed
+
+    The trials run on the CPU pool of the server and count themselves in completed,
+    so the progress can be read at any time without locking.
+*/
+
+class SimulationJob {
+    private final long id;
+    private final int n;
+    private final int trials;
+    private final long seed;
+    private final PercolationEngine engine;
+
+    private final AtomicInteger completed = new AtomicInteger();
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private volatile String state = "queued";
+    // the result only, not the PercolationStats: finished jobs are kept for a while
+    private volatile double mean;
+    private volatile double stddev;
+    private volatile double confidenceLo;
+    private volatile double confidenceHi;
+    private volatile String error;
+    private volatile double seconds;
+
+    SimulationJob(long id, int n, int trials, long seed, PercolationEngine engine) {
+        this.id = id;
+        this.n = n;
+        this.trials = trials;
+        this.seed = seed;
+        this.engine = engine;
+    }
+
+    /**
+     * Runs the trials on the given pool, from a worker of the job queue
+     */
+    void run(ForkJoinPool pool) {
+        state = "running";
+        long start = System.nanoTime();
+        try {
+            PercolationStats stats =
+                    new PercolationStats(n, trials, seed, pool, engine.factory(), threshold -> completed.incrementAndGet());
+            mean = stats.mean();
+            stddev = stats.stddev();
+            confidenceLo = stats.confidenceLo();
+            confidenceHi = stats.confidenceHi();
+            seconds = (System.nanoTime() - start) / 1e9;
+            state = "done";
+        } catch (Throwable e) {   // OutOfMemoryError too: the job must not stay running forever
+            error = e.toString();
+            state = "failed";
+        } finally {
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Fails a job that will never run, the server being stopped
+     */
+    void cancel() {
+        error = "server stopped";
+        state = "failed";
+        finished.countDown();
+    }
+
+    /**
+     * @return {@code true} if the job is done or failed
+     */
+    boolean isFinished() {
+        return finished.getCount() == 0;
+    }
+
+    /**
+     * Waits until the job is finished, or the timeout elapses
+     * @return {@code true} if the job is finished
+     */
+    boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    long id() {
+        return id;
+    }
+
+    int completed() {
+        return completed.get();
+    }
+
+    /**
+     * @return the state as one JSON object, with the result once done
+     */
+    String toJson() {
+        String state = this.state;   // read once: the result fields are set before the state
+        StringBuilder json = new StringBuilder(String.format(Locale.ROOT,
+                "{\"id\":%d,\"state\":\"%s\",\"n\":%d,\"trials\":%d,\"seed\":%d,\"engine\":\"%s\",\"completed\":%d",
+                id, state, n, trials, seed, engine.getName(), completed.get()));
+        if (state.equals("done")) {
+            json.append(String.format(Locale.ROOT,
+                    ",\"mean\":%s,\"stddev\":%s,\"confidenceLo\":%s,\"confidenceHi\":%s,\"seconds\":%.3f",
+                    json(mean), json(stddev), json(confidenceLo), json(confidenceHi), seconds));
+        }
+        if (state.equals("failed")) {
+            json.append(",\"error\":\"").append(error.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * JSON has no NaN (the stddev of a single trial), write null instead
+     */
+    private static String json(double x) {
+        return Double.isNaN(x) ? "null" : Double.toString(x);
+    }
+}
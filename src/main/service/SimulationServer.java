@@ -0,0 +1,343 @@
+package main.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import main.percolation.PercolationEngine;
+
+/*
+    Local HTTP service running threshold estimates (PercolationStats) as queued jobs.
+    JDK only (com.sun.net.httpserver), bound to the loopback address.
+
+        POST /jobs?n=200&trials=1000&seed=42&engine=compact   202, the job as JSON; 503 if the queue is full,
+                                                              400 if the trials of n cannot fit in the heap
+        GET  /jobs/<id>                                       the job as JSON, with the result once done
+        GET  /jobs/<id>/stream                                one JSON line per progress step, until done;
+                                                              503 if MAX_STREAMS streams are open already
+
+    Three kinds of threads:
+        http     a fixed pool: a stream holds its thread until the job is done, so they are limited
+                 to MAX_STREAMS and the REQUEST_THREADS left over always serve the short requests
+        workers  a fixed number of jobs running at once, fed by a bounded queue;
+                 a submit that finds the queue full is rejected (backpressure) instead of piling up
+        cpu      one ForkJoinPool for the trials of every running job, sized to the cores
+
+    java -cp dist/PercolationBatch.jar main.service.SimulationServer [--port 8080] [--workers 2] [--queue 16] [--threads <cores>]
+*/
+
+public class SimulationServer {
+    private static final String USAGE =
+            "usage: SimulationServer [--port <port>] [--workers <count>] [--queue <capacity>] [--threads <count>]";
+
+    /**
+     * Jobs kept for the GET requests, the oldest are forgotten first
+     */
+    private static final int HISTORY = 1024;
+
+    /**
+     * Rough upper bound of the heap used per site by a trial: the engine (two union-finds and the
+     * open sites for Percolation, less for the others) and the permutation of the sites
+     */
+    private static final long BYTES_PER_SITE = 24;
+
+    /**
+     * Streams open at once, each holding an http thread
+     */
+    private static final int MAX_STREAMS = 32;
+
+    /**
+     * Http threads that no stream can take, for the submits and status requests
+     */
+    private static final int REQUEST_THREADS = 4;
+
+    /**
+     * Time between two progress lines of a stream
+     */
+    private static final long PROGRESS_MILLIS = 100;
+
+    private final HttpServer server;
+    private final ExecutorService http;
+    private final ThreadPoolExecutor workers;
+    private final ForkJoinPool cpu;
+    private final Semaphore streams = new Semaphore(MAX_STREAMS);
+
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, SimulationJob> jobs = new LinkedHashMap<Long, SimulationJob>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, SimulationJob> eldest) {
+            return size() > HISTORY;
+        }
+    };
+
+    /**
+     * Creates the server, not yet accepting requests
+     * @param port the loopback port, 0 for any free one
+     * @param workers number of jobs running at once
+     * @param capacity number of jobs waiting to run, beyond which submits are rejected
+     * @param threads parallelism of the trials
+     * @throws IOException if the port cannot be bound
+     */
+    public SimulationServer(int port, int workers, int capacity, int threads) throws IOException {
+        if (port < 0 || workers < 1 || capacity < 1 || threads < 1)
+            throw new IllegalArgumentException();
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http = Executors.newFixedThreadPool(MAX_STREAMS + REQUEST_THREADS, daemon("simulation-http"));
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity), daemon("simulation-worker"));
+        cpu = new ForkJoinPool(threads);
+
+        server.setExecutor(http);
+        server.createContext("/jobs", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, fails the queued jobs and interrupts the running ones
+     */
+    public void stop() {
+        server.stop(0);
+        for (Runnable queued : workers.shutdownNow()) ((QueuedJob) queued).job.cancel();
+        cpu.shutdownNow();
+        http.shutdownNow();
+    }
+
+    /**
+     * @return the bound port, useful when created on port 0
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicLong count = new AtomicLong();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A job waiting in the queue of the workers
+     */
+    private final class QueuedJob implements Runnable {
+        private final SimulationJob job;
+
+        QueuedJob(SimulationJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void run() {
+            job.run(cpu);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            String[] parts = path.split("/");   // "", "jobs", id, "stream"
+
+            if (parts.length < 2 || parts.length > 4 || !parts[1].equals("jobs"))
+                                                                        send(exchange, 404, error("not found"));
+            else if (parts.length == 2 && method.equals("POST"))        submit(exchange);
+            else if (parts.length == 3 && method.equals("GET"))         status(exchange, job(parts[2]));
+            else if (parts.length == 4 && method.equals("GET") && parts[3].equals("stream"))
+                                                                        stream(exchange, job(parts[2]));
+            else                                                        send(exchange, 405, error("method not allowed"));
+        } catch (NoSuchJobException e) {
+            send(exchange, 404, error(e.getMessage()));
+        } catch (IllegalArgumentException e) {   // NumberFormatException too
+            send(exchange, 400, error(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+        int n = Integer.parseInt(required(query, "n"));
+        int trials = Integer.parseInt(required(query, "trials"));
+        long seed = query.containsKey("seed") ? Long.parseLong(query.get("seed")) : System.nanoTime();
+        PercolationEngine engine = PercolationEngine.byName(query.getOrDefault("engine", "percolation"));
+        if (n < 1 || n > 46340 || trials < 1)
+            throw new IllegalArgumentException("n must be between 1 and 46340, trials positive");
+        // every running job can keep as many systems as the CPU pool has threads
+        long systems = (long) cpu.getParallelism() * workers.getMaximumPoolSize();
+        if ((long) n * n * BYTES_PER_SITE * systems > Runtime.getRuntime().maxMemory())
+            throw new IllegalArgumentException("n = " + n + " needs more memory than the heap has for "
+                                               + systems + " trials at once");
+
+        SimulationJob job = new SimulationJob(ids.incrementAndGet(), n, trials, seed, engine);
+        try {
+            workers.execute(new QueuedJob(job));
+        } catch (RejectedExecutionException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 503, error("queue full"));
+            return;
+        }
+        synchronized (jobs) {
+            jobs.put(job.id(), job);
+        }
+        exchange.getResponseHeaders().set("Location", "/jobs/" + job.id());
+        send(exchange, 202, job.toJson());
+    }
+
+    private void status(HttpExchange exchange, SimulationJob job) throws IOException {
+        send(exchange, 200, job.toJson());
+    }
+
+    /**
+     * Streams the job if fewer than MAX_STREAMS are open, 503 otherwise
+     */
+    private void stream(HttpExchange exchange, SimulationJob job) throws IOException {
+        if (!streams.tryAcquire()) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 503, error("too many streams"));
+            return;
+        }
+        try {
+            streamJob(exchange, job);
+        } finally {
+            streams.release();
+        }
+    }
+
+    /**
+     * Writes the job every PROGRESS_MILLIS while the trials go on, one JSON object per line,
+     * the last line being the finished job
+     */
+    private void streamJob(HttpExchange exchange, SimulationJob job) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);   // chunked
+        try (OutputStream body = exchange.getResponseBody()) {
+            int written = -1;
+            boolean finished = false;
+            while (!finished) {
+                try {
+                    finished = job.await(PROGRESS_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {   // the server is stopping
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                int completed = job.completed();
+                if (completed == written && !finished) continue;
+                written = completed;
+                body.write((job.toJson() + "\n").getBytes(StandardCharsets.UTF_8));
+                body.flush();
+            }
+        }
+    }
+
+    private SimulationJob job(String id) {
+        SimulationJob job;
+        try {
+            synchronized (jobs) {
+                job = jobs.get(Long.parseLong(id));
+            }
+        } catch (NumberFormatException e) {
+            job = null;
+        }
+        if (job == null) throw new NoSuchJobException("no job " + id);
+        return job;
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":\"" + String.valueOf(message).replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> query = new HashMap<>();
+        if (raw == null) return query;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("missing value for " + pair);
+            query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                      URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String required(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) throw new IllegalArgumentException("missing " + name);
+        return value;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class NoSuchJobException extends RuntimeException {
+        NoSuchJobException(String message) {
+            super(message);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+
+        int port = 8080;
+        int workers = 2;
+        int capacity = 16;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 == args.length) throw new IllegalArgumentException("missing value for " + option);
+                String value = args[++i];
+                switch (option) {
+                case "--port":       port = Integer.parseInt(value); break;
+                case "--workers":    workers = Integer.parseInt(value); break;
+                case "--queue":      capacity = Integer.parseInt(value); break;
+                case "--threads":    threads = Integer.parseInt(value); break;
+                default:             throw new IllegalArgumentException("unknown option " + option);
+                }
+            }
+            if (port < 0 || workers < 1 || capacity < 1 || threads < 1)
+                throw new IllegalArgumentException("--workers, --queue and --threads must be positive");
+        } catch (IllegalArgumentException e) {   // NumberFormatException too
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        SimulationServer server = new SimulationServer(port, workers, capacity, threads);
+        server.start();
+        System.err.println("listening on http://localhost:" + server.port() + "/jobs");
+    }
+}
@@ -8,6 +8,7 @@ package main.transitionframes;
 
 import javax.swing.JOptionPane;
 
+import main.percolation.PercolationCanvasGUI;
 import main.percolation.PercolationGUI;
 
 /**
@@ -65,7 +66,7 @@ public class GridSizeFrame extends javax.swing.JFrame {
         });
 
         jLabel1.setFont(new java.awt.Font("Tahoma", 0, 12)); // NOI18N
-        jLabel1.setText("[2, 50]");
+        jLabel1.setText("[2, " + PercolationCanvasGUI.MAX_N + "]");
 
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
         getContentPane().setLayout(layout);
@@ -134,8 +135,8 @@ public class GridSizeFrame extends javax.swing.JFrame {
             String num = txtGridSize.getText();
             if(num != null) {
                 int N = Integer.parseInt(num);
-                if(N <= 50 && N > 1) new PercolationGUI(N);
-                else                 throw new NumberFormatException();
+                if(N <= PercolationCanvasGUI.MAX_N && N > 1) newGrid(N);
+                else                                           throw new NumberFormatException();
             }
         } catch(NumberFormatException e){
             JOptionPane.showMessageDialog(null, "Invalid");
@@ -143,6 +144,16 @@ public class GridSizeFrame extends javax.swing.JFrame {
         }
         return 0;
     }
+    /**
+     * Opens the visualization of an N-by-N grid: one button per site up to
+     * {@code PercolationGUI.MAX_N}, a single painted canvas beyond that.
+     * @param N to set an N-by-N grid
+     */
+    public static void newGrid(int N) {
+        if (N <= PercolationGUI.MAX_N) new PercolationGUI(N);
+        else                           new PercolationCanvasGUI(N);
+    }
+
     /**
      * @param args the command line arguments
      */
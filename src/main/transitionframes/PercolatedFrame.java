@@ -7,8 +7,6 @@ package main.transitionframes;
 
 import javax.swing.JFrame;
 
-import main.percolation.PercolationGUI;
-
 /**
  *
  * @author FelipeFCosta
@@ -113,7 +111,7 @@ public class PercolatedFrame extends javax.swing.JFrame {
     private void cleanButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_cleanButtonActionPerformed
         oldFrame.dispose();
         dispose();
-        new PercolationGUI(N);
+        GridSizeFrame.newGrid(N);
     }//GEN-LAST:event_cleanButtonActionPerformed
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
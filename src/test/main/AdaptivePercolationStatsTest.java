@@ -0,0 +1,66 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import main.percolation.AdaptivePercolationStats;
+import main.percolation.Percolation;
+import main.percolation.PercolationStats;
+
+public class AdaptivePercolationStatsTest {
+
+    /**
+     * Stops once the half-width reaches epsilon, long before a fixed count would.
+     */
+    @Test
+    public void testConverges() {
+        AdaptivePercolationStats stats = new AdaptivePercolationStats(20, 0.005, 1_000_000, Long.MAX_VALUE, 42L, 4, Percolation::new);
+
+        assertTrue(stats.converged());
+        assertTrue(stats.halfWidth() <= 0.005);
+        assertTrue(stats.confidenceLo() < stats.mean() && stats.mean() < stats.confidenceHi());
+        assertEquals(0.593, stats.mean(), 0.02);
+        assertTrue(stats.trials() >= 30 && stats.trials() < 1000);
+    }
+
+    /**
+     * The batches follow the thresholds, not the threads: the same seed stops at the same trial.
+     */
+    @Test
+    public void testReproducibleAcrossThreads() {
+        AdaptivePercolationStats single = new AdaptivePercolationStats(20, 0.01, 1_000_000, Long.MAX_VALUE, 42L, 1, Percolation::new);
+        AdaptivePercolationStats parallel = new AdaptivePercolationStats(20, 0.01, 1_000_000, Long.MAX_VALUE, 42L, 4, Percolation::new);
+
+        assertEquals(single.trials(), parallel.trials());
+        assertEquals(single.mean(), parallel.mean(), 0.0);
+        assertEquals(single.stddev(), parallel.stddev(), 0.0);
+    }
+
+    /**
+     * Trial i is the one of PercolationStats, so stopping at maxTrials gives its estimate.
+     */
+    @Test
+    public void testMaxTrials() {
+        AdaptivePercolationStats adaptive = new AdaptivePercolationStats(20, 1e-9, 100, Long.MAX_VALUE, 7L, 3, Percolation::new);
+        PercolationStats stats = new PercolationStats(20, 100, 7L, 2);
+
+        assertFalse(adaptive.converged());
+        assertEquals(100, adaptive.trials());
+        assertEquals(stats.mean(), adaptive.mean(), 1e-12);
+        assertEquals(stats.stddev(), adaptive.stddev(), 1e-12);
+    }
+
+    /**
+     * With no time at all, only the first batch runs.
+     */
+    @Test
+    public void testBudget() {
+        AdaptivePercolationStats adaptive = new AdaptivePercolationStats(20, 1e-9, 1_000_000, 0, 7L, 2, Percolation::new);
+
+        assertFalse(adaptive.converged());
+        assertEquals(30, adaptive.trials());
+    }
+}
@@ -0,0 +1,77 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import main.percolation.BitParallelFlood;
+import main.percolation.Percolation;
+
+public class BitParallelFloodTest {
+
+    private static void assertSameAsPercolation(boolean[][] open) {
+        int n = open.length;
+        Percolation expected = new Percolation(n);
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                if (open[row][col]) expected.open(row * n + col + 1);
+            }
+        }
+
+        BitParallelFlood actual = new BitParallelFlood(BitParallelFlood.pack(open), n);
+        assertEquals(expected.percolates(), actual.percolates());
+        for (int idx = 1; idx <= n * n; idx++) {
+            assertEquals("site " + idx, expected.isFull(idx), actual.isFull(idx));
+        }
+    }
+
+    @Test
+    public void testSameAsPercolation() {
+        SplittableRandom random = new SplittableRandom(8);
+        // sizes around the word boundaries, densities around the threshold
+        for (int n : new int[] { 1, 2, 7, 63, 64, 65, 130 }) {
+            for (double p : new double[] { 0.3, 0.55, 0.6, 0.65, 0.9 }) {
+                boolean[][] open = new boolean[n][n];
+                for (boolean[] row : open) {
+                    for (int col = 0; col < n; col++) row[col] = random.nextDouble() < p;
+                }
+                assertSameAsPercolation(open);
+            }
+        }
+    }
+
+    /**
+     * A path winding down and up again needs a sweep per turn.
+     */
+    @Test
+    public void testWindingPath() {
+        int n = 70;
+        boolean[][] open = new boolean[n][n];
+        // columns 0, 2, 4, ... open, joined alternately at the bottom and at the top row 1
+        for (int col = 0; col < n; col += 2) {
+            for (int row = 1; row < n - 1; row++) open[row][col] = true;
+            if (col + 2 < n) open[(col / 2) % 2 == 0 ? n - 2 : 1][col + 1] = true;
+        }
+        open[0][n - 2] = true;        // only the last column reaches the top
+        open[n - 1][0] = true;        // and only the first one the bottom
+
+        assertSameAsPercolation(open);
+        BitParallelFlood flood = new BitParallelFlood(BitParallelFlood.pack(open), n);
+        assertTrue(flood.percolates());
+        assertTrue(flood.sweeps() > n / 4);
+    }
+
+    /**
+     * Bits beyond the last column are not sites.
+     */
+    @Test
+    public void testIgnoresPadding() {
+        long[][] open = { { 1L | 1L << 3 }, { 1L << 2 | 1L << 3 }, { 1L << 2 } };
+        BitParallelFlood flood = new BitParallelFlood(open, 3);
+        assertEquals(false, flood.percolates());
+        assertEquals(0, flood.fullMask()[1][0]);
+    }
+}
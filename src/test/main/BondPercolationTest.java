@@ -0,0 +1,94 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import main.percolation.BondPercolation;
+import main.percolation.BondPercolation.Direction;
+import main.percolation.PercolationStats;
+
+public class BondPercolationTest {
+
+    /**
+     * After each random bond, the full sites must match a flood through the open bonds from the first row.
+     */
+    @Test
+    public void testSameAsFlood() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int n : new int[] { 2, 3, 8 }) {
+            BondPercolation percolation = new BondPercolation(n);
+            for (int step = 0; step < percolation.bonds(); step++) {
+                percolation.openBond(1 + random.nextInt(percolation.bonds()));
+
+                boolean[] full = flood(n, percolation);
+                boolean percolates = false;
+                for (int site = 1; site <= n * n; site++) {
+                    assertEquals(full[site], percolation.isFull(site));
+                    if (site > n * n - n) percolates |= full[site];
+                }
+                assertEquals(percolates, percolation.percolates());
+            }
+        }
+    }
+
+    private static boolean[] flood(int n, BondPercolation percolation) {
+        boolean[] full = new boolean[n * n + 1];
+        int[] stack = new int[n * n];
+        int top = 0;
+        for (int site = 1; site <= n; site++) {
+            full[site] = true;
+            stack[top++] = site;
+        }
+        while (top > 0) {
+            int site = stack[--top];
+            int row = (site - 1) / n;
+            int col = (site - 1) % n;
+            int[][] moves = { { row > 0 ? site - n : 0, 0 }, { row < n - 1 ? site + n : 0, 1 },
+                              { col > 0 ? site - 1 : 0, 2 }, { col < n - 1 ? site + 1 : 0, 3 } };
+            Direction[] directions = { Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT };
+            for (int[] move : moves) {
+                int next = move[0];
+                if (next != 0 && !full[next] && percolation.isBondOpen(site, directions[move[1]])) {
+                    full[next] = true;
+                    stack[top++] = next;
+                }
+            }
+        }
+        return full;
+    }
+
+    @Test
+    public void testDirections() {
+        BondPercolation percolation = new BondPercolation(3);
+        assertEquals(percolation.bond(5, Direction.LEFT), percolation.bond(4, Direction.RIGHT));
+        assertEquals(percolation.bond(5, Direction.UP), percolation.bond(2, Direction.DOWN));
+
+        percolation.openBond(2, Direction.DOWN);
+        percolation.openBond(5, Direction.DOWN);
+        assertEquals(true, percolation.isBondOpen(8, Direction.UP));
+        assertEquals(2, percolation.numberOfOpenBonds());
+        assertEquals(true, percolation.percolates());
+
+        percolation.reset();
+        assertEquals(false, percolation.percolates());
+        assertEquals(false, percolation.isFull(8));
+        assertEquals(true, percolation.isFull(3));   // the first row is always full
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoBondOutside() {
+        new BondPercolation(3).bond(3, Direction.RIGHT);
+    }
+
+    /**
+     * The bond threshold of the square lattice is exactly 1/2.
+     */
+    @Test
+    public void testMonteCarlo() {
+        PercolationStats stats = PercolationStats.bonds(40, 400, 3, 2);
+        assertEquals(0.5, stats.mean(), 0.01);
+    }
+}
@@ -0,0 +1,78 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import main.percolation.ClusterStatistics;
+import main.percolation.SingleUnionPercolation;
+
+public class ClusterStatisticsTest {
+
+    /**
+     * After each random open, the statistics must match a flood fill of the whole grid.
+     */
+    @Test
+    public void testSameAsScan() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int n : new int[] { 1, 2, 5, 12 }) {
+            SingleUnionPercolation percolation = new SingleUnionPercolation(n, true);
+            ClusterStatistics statistics = percolation.clusterStatistics();
+            for (int round = 0; round < 2; round++) {
+                for (int step = 0; step < n * n; step++) {
+                    percolation.open(1 + random.nextInt(n * n));
+                    assertSameAsScan(n, percolation, statistics);
+                }
+                percolation.reset();
+                assertEquals(0, statistics.clusters());
+                assertEquals(0, statistics.largestCluster());
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNotRequested() {
+        new SingleUnionPercolation(3).clusterStatistics();
+    }
+
+    private static void assertSameAsScan(int n, SingleUnionPercolation percolation, ClusterStatistics statistics) {
+        int[] histogram = new int[n * n + 1];
+        boolean[] seen = new boolean[n * n + 1];
+        int[] stack = new int[n * n];
+        int clusters = 0;
+        int largest = 0;
+        for (int idx = 1; idx <= n * n; idx++) {
+            if (seen[idx] || !percolation.isOpen(idx)) continue;
+            int size = 0;
+            int top = 0;
+            seen[idx] = true;
+            stack[top++] = idx;
+            while (top > 0) {
+                int site = stack[--top];
+                size++;
+                int row = (site - 1) / n;
+                int col = (site - 1) % n;
+                int[] neighbors = {
+                    row > 0 ? site - n : 0, row < n - 1 ? site + n : 0,
+                    col > 0 ? site - 1 : 0, col < n - 1 ? site + 1 : 0 };
+                for (int next : neighbors) {
+                    if (next != 0 && !seen[next] && percolation.isOpen(next)) {
+                        seen[next] = true;
+                        stack[top++] = next;
+                    }
+                }
+            }
+            histogram[size]++;
+            clusters++;
+            largest = Math.max(largest, size);
+        }
+
+        assertEquals(clusters, statistics.clusters());
+        assertEquals(largest, statistics.largestCluster());
+        for (int size = 1; size <= n * n; size++) {
+            assertEquals(histogram[size], statistics.clustersOfSize(size));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import main.percolation.ConcurrentPercolation;
+import main.percolation.Percolation;
+
+public class ConcurrentPercolationTest {
+
+    /**
+     * Opening the same sites from several threads, in any interleaving,
+     * must end in the state of a sequential Percolation.
+     */
+    @Test
+    public void testSameAsSequential() throws InterruptedException {
+        int n = 200;
+        int threads = 4;
+        SplittableRandom random = new SplittableRandom(5);
+        int[] sites = new int[n * n * 6 / 10];
+        for (int i = 0; i < sites.length; i++) sites[i] = 1 + random.nextInt(n * n);
+
+        Percolation expected = new Percolation(n);
+        expected.openAll(sites);
+
+        for (int round = 0; round < 5; round++) {
+            ConcurrentPercolation actual = new ConcurrentPercolation(n);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            for (int t = 0; t < threads; t++) {
+                final int first = t;
+                pool.execute(() -> {
+                    for (int i = first; i < sites.length; i += threads) actual.open(sites[i]);
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+
+            assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+            assertEquals(expected.percolates(), actual.percolates());
+            for (int idx = 1; idx <= n * n; idx++) {
+                assertEquals(expected.isFull(idx), actual.isFull(idx));
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import main.percolation.Percolation;
+
+public class FullSiteListenerTest {
+
+    /**
+     * After every open, the reported sites must be exactly those that were not full before and are now.
+     */
+    @Test
+    public void testReportsExactlyTheNewlyFullSites() {
+        int n = 15;
+        Percolation p = new Percolation(n);
+        SplittableRandom random = new SplittableRandom(3);
+        boolean[] wasFull = new boolean[n * n + 1];
+        List<Integer> reported = new ArrayList<>();
+        p.setFullSiteListener(reported::add);
+
+        for (int step = 0; step < n * n; step++) {
+            reported.clear();
+            p.open(1 + random.nextInt(n * n));
+
+            List<Integer> expected = new ArrayList<>();
+            for (int idx = 1; idx <= n * n; idx++) {
+                if (p.isFull(idx) && !wasFull[idx]) expected.add(idx);
+                wasFull[idx] = p.isFull(idx);
+            }
+            reported.sort(null);
+            assertEquals(expected, reported);
+        }
+    }
+
+    /**
+     * A late listener is told about the sites that are already full.
+     */
+    @Test
+    public void testLateListener() {
+        Percolation p = new Percolation(3);
+        p.open(2);
+        p.open(5);
+        p.open(9);
+
+        List<Integer> reported = new ArrayList<>();
+        p.setFullSiteListener(reported::add);
+        reported.sort(null);
+        assertEquals(List.of(2, 5), reported);
+
+        p.open(8);
+        assertTrue(reported.containsAll(List.of(8, 9)));
+    }
+}
@@ -0,0 +1,70 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import main.percolation.LargePercolation;
+import main.percolation.Percolation;
+
+public class LargePercolationTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertSameAsPercolation(int n, LargePercolation actual) {
+        SplittableRandom random = new SplittableRandom(n);
+        Percolation expected = new Percolation(n);
+
+        for (int step = 0; step < n * n; step++) {
+            int site = 1 + random.nextInt(n * n);
+            expected.open(site);
+            actual.open(site);
+
+            assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+            assertEquals(expected.percolates(), actual.percolates());
+            for (int idx = 1; idx <= n * n; idx++) {
+                assertEquals(expected.isFull(idx), actual.isFull(idx));
+            }
+        }
+    }
+
+    @Test
+    public void testDirectMemory() throws IOException {
+        for (int n : new int[] { 1, 2, 5, 17 }) {
+            try (LargePercolation percolation = new LargePercolation(n)) {
+                assertSameAsPercolation(n, percolation);
+                percolation.reset();
+                assertSameAsPercolation(n, percolation);
+            }
+        }
+    }
+
+    @Test
+    public void testMemoryMapped() throws IOException {
+        try (LargePercolation percolation = new LargePercolation(17, folder.newFolder().toPath())) {
+            assertSameAsPercolation(17, percolation);
+            percolation.reset();
+            assertEquals(0, percolation.numberOfOpenSites());
+            assertSameAsPercolation(17, percolation);
+        }
+    }
+
+    /**
+     * Files left over by an earlier run must not be mapped as the starting state.
+     */
+    @Test(expected = FileAlreadyExistsException.class)
+    public void testLeftoverFiles() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        try (LargePercolation percolation = new LargePercolation(17, directory)) {
+            percolation.open(1);
+        }
+        new LargePercolation(17, directory).close();
+    }
+}
@@ -0,0 +1,113 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import main.percolation.Lattice;
+import main.percolation.LatticePercolation;
+import main.percolation.Percolation;
+
+public class LatticePercolationTest {
+
+    /**
+     * The square lattice must answer like Percolation.
+     */
+    @Test
+    public void testSquareSameAsPercolation() {
+        SplittableRandom random = new SplittableRandom(10);
+        for (int n : new int[] { 1, 2, 3, 9 }) {
+            Percolation expected = new Percolation(n);
+            LatticePercolation actual = new LatticePercolation(Lattice.square(n));
+            for (int step = 0; step < n * n; step++) {
+                int site = 1 + random.nextInt(n * n);
+                expected.open(site);
+                actual.open(site);
+
+                assertEquals(expected.percolates(), actual.percolates());
+                for (int idx = 1; idx <= n * n; idx++) {
+                    assertEquals(expected.isFull(idx), actual.isFull(idx));
+                }
+            }
+        }
+    }
+
+    /**
+     * The offsets of every site must be exactly its neighbors, computed here from the coordinates.
+     */
+    @Test
+    public void testNeighbors() {
+        for (int n : new int[] { 1, 2, 3, 5 }) {
+            assertNeighbors(Lattice.square(n), new int[][] { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } }, false);
+            assertNeighbors(Lattice.torus(n), new int[][] { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } }, true);
+            assertNeighbors(Lattice.moore(n), new int[][] {
+                { -1, -1 }, { 0, -1 }, { 1, -1 }, { -1, 0 }, { 1, 0 }, { -1, 1 }, { 0, 1 }, { 1, 1 } }, false);
+            assertNeighbors(Lattice.triangular(n), new int[][] {
+                { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 }, { 1, -1 }, { -1, 1 } }, false);
+            assertNeighbors(Lattice.cubic(n), new int[][] {
+                { -1, 0, 0 }, { 1, 0, 0 }, { 0, -1, 0 }, { 0, 1, 0 }, { 0, 0, -1 }, { 0, 0, 1 } }, false);
+        }
+    }
+
+    private static void assertNeighbors(Lattice lattice, int[][] vectors, boolean periodicX) {
+        int n = lattice.n();
+        int dimensions = vectors[0].length;
+        for (int idx = 1; idx <= lattice.sites(); idx++) {
+            int[] coordinates = { (idx - 1) % n, (idx - 1) / n % n, (idx - 1) / (n * n) };
+            boolean[] expected = new boolean[lattice.sites() + 1];
+            for (int[] v : vectors) {
+                int neighbor = 1;
+                int stride = 1;
+                for (int axis = 0; axis < dimensions; axis++) {
+                    int c = coordinates[axis] + v[axis];
+                    if (periodicX && axis == 0) c = (c + n) % n;
+                    if (c < 0 || c >= n) {
+                        neighbor = 0;
+                        break;
+                    }
+                    neighbor += c * stride;
+                    stride *= n;
+                }
+                if (neighbor != 0 && neighbor != idx) expected[neighbor] = true;
+            }
+
+            boolean[] actual = new boolean[lattice.sites() + 1];
+            for (int offset : lattice.offsets(idx)) {
+                assertEquals(lattice + " site " + idx + " has neighbor " + (idx + offset) + " twice", false, actual[idx + offset]);
+                actual[idx + offset] = true;
+            }
+            for (int site = 1; site <= lattice.sites(); site++) {
+                assertEquals(lattice + " sites " + idx + " and " + site, expected[site], actual[site]);
+            }
+        }
+    }
+
+    /**
+     * A single open column crosses a cube, a diagonal crosses the Moore lattice but not the square one,
+     * and a row wrapping around the torus joins its ends.
+     */
+    @Test
+    public void testPercolation() {
+        int n = 6;
+        LatticePercolation cube = new LatticePercolation(Lattice.cubic(n));
+        for (int z = 0; z < n; z++) cube.open(1 + 2 + 3 * n + z * n * n);
+        assertEquals(true, cube.percolates());
+
+        LatticePercolation moore = new LatticePercolation(Lattice.moore(n));
+        LatticePercolation square = new LatticePercolation(Lattice.square(n));
+        for (int i = 0; i < n; i++) {
+            moore.open(1 + i + i * n);
+            square.open(1 + i + i * n);
+        }
+        assertEquals(true, moore.percolates());
+        assertEquals(false, square.percolates());
+
+        LatticePercolation torus = new LatticePercolation(Lattice.torus(n));
+        torus.open(1);                // top row, first column
+        torus.open(n + n);            // second row, last column: only a neighbor of
+        torus.open(n + 1);            // the second row, first column through the wrap
+        assertEquals(true, torus.isFull(n + n));
+    }
+}
@@ -0,0 +1,54 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import main.percolation.NewmanZiff;
+import main.percolation.PercolationStats;
+
+public class NewmanZiffTest {
+
+    @Test
+    public void testCurve() {
+        NewmanZiff curve = new NewmanZiff(32, 300, 17L);
+
+        assertEquals(0.0, curve.percolationProbability(0), 0.0);
+        assertEquals(1.0, curve.percolationProbability(1), 0.0);
+        assertEquals(1.0, curve.largestClusterFraction(1), 1e-12);
+        assertTrue(curve.percolationProbability(0.45) < 0.05);
+        assertTrue(curve.percolationProbability(0.75) > 0.95);
+
+        double previous = 0;
+        for (int i = 0; i <= 100; i++) {
+            double p = curve.percolationProbability(i / 100.0);
+            assertTrue(p >= previous - 1e-12);
+            previous = p;
+        }
+    }
+
+    /**
+     * Q(k) is the empirical distribution of the threshold, so its mean is the PercolationStats mean.
+     */
+    @Test
+    public void testSameThresholdAsStats() {
+        int n = 20;
+        NewmanZiff curve = new NewmanZiff(n, 400, 5L);
+        double mean = 0;
+        for (int k = 1; k <= n * n; k++) {
+            mean += (curve.percolationProbabilityAt(k) - curve.percolationProbabilityAt(k - 1)) * k / (n * n);
+        }
+        assertEquals(new PercolationStats(n, 400, 9L).mean(), mean, 0.01);
+    }
+
+    @Test
+    public void testReproducibleAcrossThreads() {
+        NewmanZiff single = new NewmanZiff(16, 50, 3L, 1);
+        NewmanZiff parallel = new NewmanZiff(16, 50, 3L, 3);
+        for (int i = 0; i <= 20; i++) {
+            assertEquals(single.percolationProbability(i / 20.0), parallel.percolationProbability(i / 20.0), 0.0);
+            assertEquals(single.largestClusterFraction(i / 20.0), parallel.largestClusterFraction(i / 20.0), 0.0);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import main.percolation.CompactPercolation;
+import main.percolation.ConcurrentPercolation;
+import main.percolation.Percolation;
+import main.percolation.PercolationModel;
+import main.percolation.RollbackUnionFind;
+import main.percolation.SingleUnionPercolation;
+import main.percolation.TimestampedPercolation;
+import main.percolation.UnionFindAlgorithm;
+
+/**
+ * Every engine must answer like {@code Percolation} after each random open.
+ */
+@RunWith(Parameterized.class)
+public class PercolationEnginesTest {
+    private final IntFunction<PercolationModel> engine;
+
+    public PercolationEnginesTest(String name, IntFunction<PercolationModel> engine) {
+        this.engine = engine;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                { "percolation", (IntFunction<PercolationModel>) Percolation::new },
+                { "single union", (IntFunction<PercolationModel>) SingleUnionPercolation::new },
+                { "compact", (IntFunction<PercolationModel>) CompactPercolation::new },
+                { "concurrent", (IntFunction<PercolationModel>) ConcurrentPercolation::new },
+                { "timestamped", (IntFunction<PercolationModel>) TimestampedPercolation::new },
+                { "percolation on rem", (IntFunction<PercolationModel>) n -> new Percolation(n, UnionFindAlgorithm.REM.factory()) },
+                { "percolation on rank", (IntFunction<PercolationModel>) n -> new Percolation(n, UnionFindAlgorithm.RANK.factory()) },
+                { "percolation on rollback", (IntFunction<PercolationModel>) n -> new Percolation(n, RollbackUnionFind::new) },
+                { "percolation on quick-find", (IntFunction<PercolationModel>) n -> new Percolation(n, UnionFindAlgorithm.QUICK_FIND.factory()) },
+            });
+    }
+
+    @Test
+    public void testSameAsPercolation() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int n : new int[] { 1, 2, 3, 7, 20 }) {
+            assertSameAsPercolation(n, engine.apply(n), random);
+        }
+    }
+
+    /**
+     * A reset system must behave like a new one.
+     */
+    @Test
+    public void testReset() {
+        SplittableRandom random = new SplittableRandom(4);
+        for (int n : new int[] { 1, 2, 3, 7, 20 }) {
+            PercolationModel actual = engine.apply(n);
+            for (int i = 0; i < n * n; i++) actual.open(1 + random.nextInt(n * n));
+            actual.reset();
+
+            assertEquals(0, actual.numberOfOpenSites());
+            assertEquals(false, actual.percolates());
+            assertSameAsPercolation(n, actual, random);
+        }
+    }
+
+    private static void assertSameAsPercolation(int n, PercolationModel actual, SplittableRandom random) {
+        Percolation expected = new Percolation(n);
+        for (int step = 0; step < n * n; step++) {
+            int site = 1 + random.nextInt(n * n);
+            expected.open(site);
+            actual.open(site);
+
+            assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+            assertEquals(expected.percolates(), actual.percolates());
+            for (int idx = 1; idx <= n * n; idx++) {
+                assertEquals(expected.isOpen(idx), actual.isOpen(idx));
+                assertEquals(expected.isFull(idx), actual.isFull(idx));
+            }
+        }
+    }
+
+    @Test
+    public void testOpenAllStopsAtPercolation() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int n : new int[] { 1, 2, 3, 7, 20 }) {
+            int[] order = new int[n * n];
+            for (int i = 0; i < order.length; i++) order[i] = i + 1;
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int site = order[j];
+                order[j] = order[i];
+                order[i] = site;
+            }
+
+            // one site at a time
+            Percolation stepwise = new Percolation(n);
+            int expected = 0;
+            while (true) {
+                stepwise.open(order[expected]);
+                if (stepwise.percolates()) break;
+                expected++;
+            }
+
+            PercolationModel actual = engine.apply(n);
+            assertEquals(expected, actual.openAll(order, 0, order.length, true));
+            assertEquals(expected + 1, actual.numberOfOpenSites());
+            assertEquals(expected, new Percolation(n).openAll(order, 0, order.length, true));
+            assertEquals(-1, actual.openAll(order));
+            assertEquals(n * n, actual.numberOfOpenSites());
+        }
+    }
+}
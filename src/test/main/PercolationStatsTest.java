@@ -0,0 +1,70 @@
+package test.main;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import main.percolation.Percolation;
+import main.percolation.PercolationStats;
+
+public class PercolationStatsTest {
+
+    /**
+     * The same seed must give the same estimate whatever the number of threads.
+     */
+    @Test
+    public void testReproducibleAcrossThreads() {
+        PercolationStats single = new PercolationStats(20, 64, 42L, 1);
+        PercolationStats parallel = new PercolationStats(20, 64, 42L, 4);
+
+        assertArrayEquals(new double[] { single.mean(), single.stddev() },
+                          new double[] { parallel.mean(), parallel.stddev() }, 0.0);
+    }
+
+    /**
+     * The threshold of the square lattice is about 0.5927.
+     */
+    @Test
+    public void testThreshold() {
+        PercolationStats stats = new PercolationStats(50, 200, 7L);
+
+        assertEquals(0.593, stats.mean(), 0.02);
+        assertTrue(stats.confidenceLo() < stats.mean() && stats.mean() < stats.confidenceHi());
+    }
+
+    /**
+     * On a shared pool, the systems of the trials must not outlive the run,
+     * even while the pool and the statistics are still reachable.
+     */
+    @Test
+    public void testSharedPoolKeepsNoSystems() throws InterruptedException {
+        List<WeakReference<Percolation>> systems = Collections.synchronizedList(new ArrayList<>());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            PercolationStats stats = new PercolationStats(30, 64, 3L, pool, n -> {
+                Percolation percolation = new Percolation(n);
+                systems.add(new WeakReference<>(percolation));
+                return percolation;
+            }, null);
+            assertEquals(64, stats.trials());
+            assertTrue(systems.size() >= 1 && systems.size() <= 64);
+
+            for (int attempt = 0; attempt < 50 && systems.stream().anyMatch(r -> r.get() != null); attempt++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertTrue(systems.stream().allMatch(r -> r.get() == null));
+            assertEquals(64, stats.trials());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
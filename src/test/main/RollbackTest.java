@@ -0,0 +1,104 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import main.percolation.Percolation;
+import main.percolation.RollbackUnionFind;
+
+public class RollbackTest {
+
+    /**
+     * After a rollback the system must answer like a new one given only the opens before the checkpoint,
+     * and the full sites listener must go on reporting exactly the newly full sites.
+     */
+    @Test
+    public void testSameAsReplay() {
+        int n = 12;
+        SplittableRandom random = new SplittableRandom(6);
+        Percolation actual = new Percolation(n, RollbackUnionFind::new);
+        int[] history = new int[n * n];
+        boolean[] reported = new boolean[n * n + 1];
+        actual.setFullSiteListener(idx -> {
+            assertFalse(reported[idx]);
+            reported[idx] = true;
+        });
+
+        for (int round = 0; round < 20; round++) {
+            while (actual.numberOfOpenSites() < n * n / 2 + round * 2) {
+                int site = 1 + random.nextInt(n * n);
+                if (!actual.isOpen(site)) history[actual.numberOfOpenSites()] = site;
+                actual.open(site);
+            }
+
+            int checkpoint = random.nextInt(actual.numberOfOpenSites() + 1);
+            Set<Integer> changed = new HashSet<>();
+            actual.rollback(checkpoint, changed::add);
+
+            Percolation expected = new Percolation(n);
+            for (int k = 0; k < checkpoint; k++) expected.open(history[k]);
+            assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+            assertEquals(expected.percolates(), actual.percolates());
+            for (int idx = 1; idx <= n * n; idx++) {
+                assertEquals(expected.isOpen(idx), actual.isOpen(idx));
+                assertEquals(expected.isFull(idx), actual.isFull(idx));
+                if (reported[idx] && !expected.isFull(idx)) {
+                    assertTrue(changed.contains(idx));
+                    reported[idx] = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the open sites whose blocking stops the percolation, on one system rolled back per candidate.
+     */
+    @Test
+    public void testCriticalSites() {
+        // 1 2 3     open: 2, 5, 4, 7, 8
+        // 4 5 6     5 is on every path, 2 is the only open top site
+        // 7 8 9
+        int[] opens = { 2, 5, 4, 7, 8 };
+        Percolation p = new Percolation(3, RollbackUnionFind::new);
+        int empty = p.checkpoint();
+        Set<Integer> critical = new HashSet<>();
+        for (int candidate : opens) {
+            for (int site : opens) {
+                if (site != candidate) p.open(site);
+            }
+            if (!p.percolates()) critical.add(candidate);
+            p.rollback(empty);
+        }
+        assertEquals(Set.of(2, 5), critical);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNeedsRollbackUnionFind() {
+        new Percolation(3).checkpoint();
+    }
+
+    @Test
+    public void testUnionFindRollback() {
+        RollbackUnionFind uf = new RollbackUnionFind(6);
+        uf.union(0, 1);
+        int checkpoint = uf.checkpoint();
+        uf.union(1, 2);
+        uf.union(3, 4);
+        uf.union(4, 1);
+        assertEquals(5, uf.size(0));
+
+        uf.rollback(checkpoint);
+        assertTrue(uf.connected(0, 1));
+        assertFalse(uf.connected(1, 2));
+        assertFalse(uf.connected(3, 4));
+        assertEquals(2, uf.size(1));
+        assertEquals(1, uf.size(4));
+    }
+}
@@ -0,0 +1,99 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import main.percolation.PercolationStats;
+import main.percolation.SingleUnionPercolation;
+import main.service.SimulationServer;
+
+public class SimulationServerTest {
+    private SimulationServer server;
+
+    @After
+    public void stop() {
+        if (server != null) server.stop();
+    }
+
+    /**
+     * A job streams its progress, then the same result as PercolationStats for the same seed.
+     */
+    @Test
+    public void testSubmitAndStream() throws IOException {
+        server = new SimulationServer(0, 1, 4, 2);
+        server.start();
+
+        HttpURLConnection submit = request("POST", "/jobs?n=20&trials=200&seed=7&engine=single-union");
+        assertEquals(202, submit.getResponseCode());
+        String location = submit.getHeaderField("Location");
+        assertTrue(read(submit).get(0).contains("\"trials\":200"));
+
+        List<String> lines = read(request("GET", location + "/stream"));
+        String last = lines.get(lines.size() - 1);
+        assertTrue(last, last.contains("\"state\":\"done\""));
+        assertTrue(last, last.contains("\"completed\":200"));
+
+        PercolationStats stats = new PercolationStats(20, 200, 7, 1, SingleUnionPercolation::new);
+        assertTrue(last, last.contains("\"mean\":" + stats.mean() + ","));
+
+        assertEquals(last, read(request("GET", location)).get(0));
+    }
+
+    /**
+     * One job running, one queued: the next submit is rejected until the queue drains.
+     */
+    @Test
+    public void testBackpressure() throws IOException {
+        server = new SimulationServer(0, 1, 1, 1);
+        server.start();
+
+        assertEquals(202, request("POST", "/jobs?n=1000&trials=100000&seed=1").getResponseCode());
+        assertEquals(202, request("POST", "/jobs?n=10&trials=1&seed=1").getResponseCode());
+        HttpURLConnection rejected = request("POST", "/jobs?n=10&trials=1&seed=1");
+        assertEquals(503, rejected.getResponseCode());
+        assertEquals("1", rejected.getHeaderField("Retry-After"));
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        server = new SimulationServer(0, 1, 1, 1);
+        server.start();
+
+        assertEquals(400, request("POST", "/jobs?trials=10").getResponseCode());
+        assertEquals(400, request("POST", "/jobs?n=10&trials=10&engine=none").getResponseCode());
+        assertEquals(400, request("POST", "/jobs?n=0&trials=10").getResponseCode());
+        assertEquals(400, request("POST", "/jobs?n=46340&trials=10").getResponseCode());   // 2^31 sites
+        assertEquals(404, request("GET", "/jobs/42").getResponseCode());
+        assertEquals(404, request("GET", "/jobs/x/stream").getResponseCode());
+        assertEquals(405, request("DELETE", "/jobs/1").getResponseCode());
+    }
+
+    private HttpURLConnection request(String method, String path) throws IOException {
+        HttpURLConnection connection =
+                (HttpURLConnection) new URL("http://127.0.0.1:" + server.port() + path).openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+
+    private static List<String> read(HttpURLConnection connection) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = connection.getInputStream();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) lines.add(line);
+        }
+        return lines;
+    }
+}
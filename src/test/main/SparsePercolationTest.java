@@ -0,0 +1,57 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import main.percolation.Percolation;
+import main.percolation.SparsePercolation;
+
+public class SparsePercolationTest {
+
+    @Test
+    public void testSameAsPercolation() {
+        for (int n : new int[] { 1, 2, 5, 17 }) {
+            SplittableRandom random = new SplittableRandom(n);
+            Percolation expected = new Percolation(n);
+            SparsePercolation actual = new SparsePercolation(n);
+
+            for (int step = 0; step < n * n; step++) {
+                int site = 1 + random.nextInt(n * n);
+                expected.open(site);
+                actual.open(site);
+
+                assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+                assertEquals(expected.percolates(), actual.percolates());
+                for (int idx = 1; idx <= n * n; idx++) {
+                    assertEquals(expected.isOpen(idx), actual.isOpen(idx));
+                    assertEquals(expected.isFull(idx), actual.isFull(idx));
+                }
+            }
+        }
+    }
+
+    /**
+     * A column through a grid of 10^18 sites needs memory for its million sites only.
+     */
+    @Test
+    public void testHugeGrid() {
+        long n = 1_000_000_000L;
+        SparsePercolation percolation = new SparsePercolation(n);
+        long col = 123_456_789L;
+        for (long row = 0; row < 1_000_000; row++) percolation.open(row * n + col);
+
+        assertEquals(1_000_000, percolation.numberOfOpenSites());
+        assertTrue(percolation.isFull(999_999 * n + col));
+        assertFalse(percolation.isOpen(1_000_000 * n + col));
+        assertFalse(percolation.percolates());
+
+        percolation.reset();
+        assertEquals(0, percolation.numberOfOpenSites());
+        assertFalse(percolation.isFull(col));
+    }
+}
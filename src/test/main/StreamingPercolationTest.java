@@ -0,0 +1,66 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import main.percolation.Percolation;
+import main.percolation.StreamingPercolation;
+
+public class StreamingPercolationTest {
+
+    @Test
+    public void testSameAsPercolation() {
+        SplittableRandom random = new SplittableRandom(13);
+        for (int n : new int[] { 1, 2, 5, 30 }) {
+            for (int trial = 0; trial < 50; trial++) {
+                Percolation expected = new Percolation(n);
+                StreamingPercolation actual = new StreamingPercolation(n);
+                for (int row = 0; row < n; row++) {
+                    boolean[] open = new boolean[n];
+                    for (int col = 0; col < n; col++) {
+                        open[col] = random.nextDouble() < 0.6;
+                        if (open[col]) expected.open(row * n + col + 1);
+                    }
+                    actual.addRow(open);
+                }
+                assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+                assertEquals(expected.percolates(), actual.percolates());
+            }
+        }
+    }
+
+    /**
+     * Two columns joined in the second row are one spanning cluster, a broken column is none.
+     */
+    @Test
+    public void testSpanningClusters() throws IOException {
+        String grid = "10101\n"
+                    + "11101\n"
+                    + "10101\r\n"
+                    + "10100\n"
+                    + "10101\n";
+        StreamingPercolation p = StreamingPercolation.read(
+                new ByteArrayInputStream(grid.getBytes(StandardCharsets.US_ASCII)));
+
+        assertEquals(5, p.rows());
+        assertEquals(true, p.percolates());
+        assertEquals(1, p.spanningClusters());
+
+        p.addRow(new boolean[] { true, false, true, false, true });
+        assertEquals(1, p.spanningClusters());
+
+        p.addRow(new boolean[] { true, true, true, true, true });
+        assertEquals(1, p.spanningClusters());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRaggedRows() throws IOException {
+        StreamingPercolation.read(new ByteArrayInputStream("101\n10\n".getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,43 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import main.percolation.Percolation;
+import main.percolation.TiledPercolation;
+
+public class TiledPercolationTest {
+
+    /**
+     * Whatever the number of strips, the labels must match a Percolation opened site by site.
+     */
+    @Test
+    public void testSameAsPercolation() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int n : new int[] { 1, 2, 5, 30, 64 }) {
+            for (double p : new double[] { 0.4, 0.6, 0.75 }) {
+                boolean[][] open = new boolean[n][n];
+                Percolation expected = new Percolation(n);
+                for (int row = 0; row < n; row++) {
+                    for (int col = 0; col < n; col++) {
+                        open[row][col] = random.nextDouble() < p;
+                        if (open[row][col]) expected.open(row * n + col + 1);
+                    }
+                }
+
+                for (int strips : new int[] { 1, 3, 8, 100 }) {
+                    TiledPercolation actual = new TiledPercolation(open, strips);
+                    assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+                    assertEquals(expected.percolates(), actual.percolates());
+                    for (int idx = 1; idx <= n * n; idx++) {
+                        assertEquals(expected.isOpen(idx), actual.isOpen(idx));
+                        assertEquals(expected.isFull(idx), actual.isFull(idx));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import main.percolation.Percolation;
+import main.percolation.TimestampedPercolation;
+
+public class TimestampedPercolationTest {
+
+    /**
+     * After the run, every historical query must give what Percolation answered at that step.
+     */
+    @Test
+    public void testHistoryMatchesReplay() {
+        SplittableRandom random = new SplittableRandom(9);
+        for (int n : new int[] { 1, 2, 3, 8, 15 }) {
+            Percolation replay = new Percolation(n);
+            TimestampedPercolation timestamped = new TimestampedPercolation(n);
+            boolean[][] full = new boolean[n * n + 1][n * n + 1];
+            int percolationStep = -1;
+
+            while (replay.numberOfOpenSites() < n * n) {
+                int site = 1 + random.nextInt(n * n);
+                if (replay.isOpen(site)) continue;
+                replay.open(site);
+                timestamped.open(site);
+
+                int step = replay.numberOfOpenSites();
+                for (int idx = 1; idx <= n * n; idx++) full[step][idx] = replay.isFull(idx);
+                if (percolationStep < 0 && replay.percolates()) percolationStep = step;
+            }
+
+            assertEquals(percolationStep, timestamped.percolationStep());
+            for (int step = 0; step <= n * n; step++) {
+                for (int idx = 1; idx <= n * n; idx++) {
+                    assertEquals(full[step][idx], timestamped.isFullAt(idx, step));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOpenStep() {
+        TimestampedPercolation timestamped = new TimestampedPercolation(3);
+        timestamped.open(5);
+        timestamped.open(2);
+        timestamped.open(5);
+
+        assertEquals(1, timestamped.openStep(5));
+        assertEquals(2, timestamped.openStep(2));
+        assertEquals(-1, timestamped.openStep(8));
+        assertEquals(false, timestamped.isOpenAt(2, 1));
+        assertEquals(2, timestamped.fullStep(5));
+        assertEquals(-1, timestamped.percolationStep());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStepInTheFuture() {
+        TimestampedPercolation timestamped = new TimestampedPercolation(3);
+        timestamped.open(1);
+        timestamped.isFullAt(1, 2);
+    }
+}
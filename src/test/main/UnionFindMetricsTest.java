@@ -0,0 +1,56 @@
+package test.main;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import main.percolation.UnionFindMetrics;
+
+public class UnionFindMetricsTest {
+
+    /**
+     * Counters, percentiles and dump of an instance, recorded by hand: the tests run without
+     * -Dpercolation.metrics, so the union-finds themselves record nothing.
+     */
+    @Test
+    public void testRecord() {
+        UnionFindMetrics metrics = new UnionFindMetrics("test");
+        for (int i = 0; i < 98; i++) metrics.find(1);
+        metrics.find(5);
+        metrics.find(100);                   // beyond the histogram: last bucket
+        metrics.union(true);
+        metrics.union(false);
+        metrics.opened(3);
+        metrics.opened(1);
+
+        assertEquals(100, metrics.getFinds());
+        assertEquals((98 + 5 + 100) / 100.0, metrics.getMeanFindSteps(), 1e-9);
+        assertEquals(100, metrics.getMaxFindSteps());
+        assertEquals(1, metrics.getFindStepsP50());
+        assertEquals(5, metrics.getFindStepsP99());
+        assertEquals(63, metrics.getFindStepsP999());
+        assertEquals(1, metrics.percentile(0));   // the first bucket holding finds
+        assertEquals(98, metrics.getFindStepsHistogram()[1]);
+        assertEquals(2, metrics.getUnions());
+        assertEquals(1, metrics.getLinks());
+        assertEquals(2, metrics.getOpens());
+        assertEquals(4, metrics.getOpenNeighbors());
+        assertEquals(2.0, metrics.getOpenNeighborsPerOpen(), 1e-9);
+        assertTrue(metrics.dump().startsWith("test: finds=100 steps mean=2.030 p50=1 p99=5 p99.9=63 max=100"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getFinds());
+        assertEquals(0, metrics.getMaxFindSteps());
+        assertEquals(0, metrics.getFindStepsP99());
+        assertEquals(0, metrics.getOpenNeighbors());
+        assertEquals(0, metrics.getOpenNeighborsPerOpen(), 0);
+        assertArrayEquals(new long[64], metrics.getFindStepsHistogram());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPercentileOutOfRange() {
+        new UnionFindMetrics("test").percentile(101);
+    }
+}
@@ -0,0 +1,68 @@
+package test.main;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import main.percolation.UnionFind;
+import main.percolation.UnionFindAlgorithm;
+import main.percolation.WeightedQuickUnion;
+
+/**
+ * Every union-find must answer {@code connected} like {@code WeightedQuickUnion}.
+ */
+@RunWith(Parameterized.class)
+public class UnionFindTest {
+    private final UnionFindAlgorithm algorithm;
+
+    public UnionFindTest(UnionFindAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        Collection<Object[]> data = new ArrayList<>();
+        for (UnionFindAlgorithm algorithm : UnionFindAlgorithm.values()) data.add(new Object[] { algorithm });
+        return data;
+    }
+
+    @Test
+    public void testSameAsWeightedQuickUnion() {
+        SplittableRandom random = new SplittableRandom(2);
+        UnionFind actual = algorithm.factory().apply(200);
+        for (int round = 0; round < 2; round++) {
+            WeightedQuickUnion expected = new WeightedQuickUnion(200);
+            for (int step = 0; step < 300; step++) {
+                int p = random.nextInt(200);
+                int q = random.nextInt(200);
+                expected.union(p, q);
+                actual.union(p, q);
+
+                int a = random.nextInt(200);
+                int b = random.nextInt(200);
+                assertEquals(expected.connected(a, b), actual.connected(a, b));
+                assertEquals(expected.connected(p, q), actual.connected(p, q));
+            }
+            for (int i = 0; i < 200; i++) {
+                assertEquals(expected.find(i) == expected.find(0), actual.find(i) == actual.find(0));
+            }
+            actual.reset();   // the second round checks that reset gives a new object
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindOutOfRange() {
+        algorithm.factory().apply(10).find(10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnionOutOfRange() {
+        algorithm.factory().apply(10).union(0, -1);
+    }
+}